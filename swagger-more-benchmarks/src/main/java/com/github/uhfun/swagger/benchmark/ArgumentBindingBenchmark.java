@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.uhfun.swagger.benchmark.fixture.Fixtures;
+import com.github.uhfun.swagger.invoke.ApiArgumentBinder;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.alibaba.fastjson.parser.Feature.OrderedField;
+import static com.alibaba.fastjson.parser.Feature.SupportAutoType;
+
+/**
+ * 参数绑定: 表单参数与JSON请求体, 多参数合并与单个DTO, 旧的逐参数重复解析与单次遍历
+ *
+ * @author uhfun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentBindingBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int items;
+
+    private ApiInvocationPlan multiParameterPlan;
+    private ApiInvocationPlan singleDtoPlan;
+    private Map<String, String[]> form;
+    private String multiParameterBody;
+    private String singleDtoBody;
+
+    @Setup
+    public void setup() {
+        Map<String, ApiInvocationPlan> plans = Fixtures.plans();
+        multiParameterPlan = plans.get("/OrderService/refund");
+        singleDtoPlan = plans.get("/OrderService/create");
+        form = Fixtures.refundForm(items);
+        multiParameterBody = Fixtures.refundBody(items);
+        singleDtoBody = JSONObject.toJSONString(Fixtures.order(1, items));
+    }
+
+    @Benchmark
+    public Object[] legacyForm() {
+        return LegacyInvokePath.bind(multiParameterPlan.method(), form, null);
+    }
+
+    @Benchmark
+    public Object[] legacyBody() {
+        return LegacyInvokePath.bind(multiParameterPlan.method(), Collections.emptyMap(), multiParameterBody);
+    }
+
+    @Benchmark
+    public Object[] legacySingleDto() {
+        return LegacyInvokePath.bind(singleDtoPlan.method(), Collections.emptyMap(), singleDtoBody);
+    }
+
+    @Benchmark
+    public Object[] form() {
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, String[]> entry : form.entrySet()) {
+            List<Object> values = Stream.of(entry.getValue())
+                    .map(o -> o.startsWith("[") || o.startsWith("{") ? JSONObject.parseObject(o, SupportAutoType, OrderedField) : o).collect(Collectors.toList());
+            object.put(entry.getKey(), multiParameterPlan.isContainerParameter(entry.getKey()) ? values : values.get(0));
+        }
+        return ApiArgumentBinder.bind(multiParameterPlan, object.toJSONString());
+    }
+
+    @Benchmark
+    public Object[] body() {
+        return ApiArgumentBinder.bind(multiParameterPlan, new StringReader(multiParameterBody));
+    }
+
+    @Benchmark
+    public Object[] singleDto() {
+        return ApiArgumentBinder.bind(singleDtoPlan, new StringReader(singleDtoBody));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.github.uhfun.swagger.doclet.DocletClassPools;
+import javassist.*;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.StringMemberValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * doclet改写大量类时ClassPool的内存: 在12m的堆内改写5000个合成接口,
+ * 对比全局ClassPool逐类insertClassPath且不detach的旧做法(8m时OutOfMemoryError)与按运行划分的DocletClassPools
+ *
+ * @author uhfun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12m")
+public class DocletClassPoolBenchmark {
+
+    private static final String PACKAGE = "com.github.uhfun.swagger.benchmark.generated.doclet.";
+    private static final int METHODS = 12;
+
+    @Param("5000")
+    private int classes;
+
+    private File classDir;
+    private File outputDir;
+    private ClassLoader loader;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        classDir = Files.createTempDirectory("swagger-more-doclet-in").toFile();
+        outputDir = Files.createTempDirectory("swagger-more-doclet-out").toFile();
+        ClassPool pool = new ClassPool(true);
+        CtClass[] params = {pool.get(Long.class.getName()), pool.get(String.class.getName()), pool.get("java.util.List")};
+        for (int i = 0; i < classes; i++) {
+            CtClass ctClass = pool.makeInterface(PACKAGE + "Service" + i);
+            for (int m = 0; m < METHODS; m++) {
+                ctClass.addMethod(CtNewMethod.abstractMethod(pool.get(String.class.getName()), "method" + m, params, null, ctClass));
+            }
+            ctClass.writeFile(classDir.getPath());
+            ctClass.detach();
+        }
+        loader = new URLClassLoader(new URL[]{classDir.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Benchmark
+    public int legacyDefaultPool() throws Exception {
+        ClassPool pool = new ClassPool(true);
+        for (int i = 0; i < classes; i++) {
+            Class<?> clazz = Class.forName(PACKAGE + "Service" + i, false, loader);
+            pool.insertClassPath(new ClassClassPath(clazz));
+            annotate(pool.get(clazz.getName()));
+        }
+        return classes;
+    }
+
+    @Benchmark
+    public int scopedPools() throws Exception {
+        DocletClassPools classPools = new DocletClassPools(classDir.getPath(), loader);
+        ClassPool pool = classPools.newPool();
+        for (int i = 0; i < classes; i++) {
+            CtClass ctClass = pool.get(PACKAGE + "Service" + i);
+            annotate(ctClass);
+            classPools.release(ctClass);
+        }
+        return classPools.peakSize();
+    }
+
+    private void annotate(CtClass ctClass) throws IOException, CannotCompileException {
+        ConstPool constPool = ctClass.getClassFile().getConstPool();
+        for (CtMethod ctMethod : ctClass.getDeclaredMethods()) {
+            AnnotationsAttribute attr = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+            Annotation annotation = new Annotation("com.github.uhfun.swagger.annotations.ApiMethod", constPool);
+            annotation.addMemberValue("value", new StringMemberValue(ctMethod.getName() + " of " + ctClass.getSimpleName(), constPool));
+            attr.addAnnotation(annotation);
+            ctMethod.getMethodInfo().addAttribute(attr);
+        }
+        ctClass.writeFile(outputDir.getPath());
+    }
+}
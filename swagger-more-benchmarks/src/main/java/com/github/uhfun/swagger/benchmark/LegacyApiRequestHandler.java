@@ -0,0 +1,152 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.fasterxml.classmate.ResolvedType;
+import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.condition.NameValueExpression;
+import org.springframework.web.servlet.mvc.condition.PatternsRequestCondition;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import springfox.documentation.RequestHandler;
+import springfox.documentation.RequestHandlerKey;
+import springfox.documentation.service.ResolvedMethodParameter;
+import springfox.documentation.spring.web.readers.operation.HandlerMethodResolver;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.groupNameOf;
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.nameOf;
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.pathOf;
+
+/**
+ * 缓存之前的ApiRequestHandler, 每次读取名称、路径、分组和key都重新计算, 保留下来作为基准测试的对照组
+ *
+ * @author uhfun
+ */
+public class LegacyApiRequestHandler implements RequestHandler {
+
+    private final HandlerMethodResolver methodResolver;
+    private final HandlerMethod handlerMethod;
+    private final List<ResolvedMethodParameter> resolvedMethodParameters;
+
+    public LegacyApiRequestHandler(HandlerMethodResolver methodResolver,
+                                   HandlerMethod handlerMethod,
+                                   List<ResolvedMethodParameter> resolvedMethodParameters) {
+        this.methodResolver = methodResolver;
+        this.handlerMethod = handlerMethod;
+        this.resolvedMethodParameters = resolvedMethodParameters;
+    }
+
+    @Override
+    public Class<?> declaringClass() {
+        return handlerMethod.getBeanType();
+    }
+
+    @Override
+    public boolean isAnnotatedWith(Class<? extends Annotation> annotation) {
+        return null != AnnotationUtils.findAnnotation(handlerMethod.getMethod(), annotation);
+    }
+
+    @Override
+    public PatternsRequestCondition getPatternsCondition() {
+        return new PatternsRequestCondition(pathOf(handlerMethod.getMethod()));
+    }
+
+    @Override
+    public String groupName() {
+        return groupNameOf(handlerMethod.getBeanType());
+    }
+
+    @Override
+    public String getName() {
+        return nameOf(handlerMethod.getMethod());
+    }
+
+    @Override
+    public Set<RequestMethod> supportedMethods() {
+        return Sets.newHashSet(RequestMethod.POST);
+    }
+
+    @Override
+    public Set<? extends MediaType> produces() {
+        return Sets.newHashSet(MediaType.APPLICATION_JSON_UTF8, MediaType.TEXT_PLAIN);
+    }
+
+    @Override
+    public Set<? extends MediaType> consumes() {
+        return Sets.newHashSet(MediaType.APPLICATION_JSON_UTF8);
+    }
+
+    @Override
+    public Set<NameValueExpression<String>> headers() {
+        return Sets.newHashSet();
+    }
+
+    @Override
+    public Set<NameValueExpression<String>> params() {
+        return Sets.newHashSet();
+    }
+
+    @Override
+    public <T extends Annotation> Optional<T> findAnnotation(Class<T> annotation) {
+        return Optional.fromNullable(AnnotationUtils.findAnnotation(handlerMethod.getMethod(), annotation));
+    }
+
+    @Override
+    public RequestHandlerKey key() {
+        return new RequestHandlerKey(getPatternsCondition().getPatterns(), supportedMethods(), consumes(), produces());
+    }
+
+    @Override
+    public List<ResolvedMethodParameter> getParameters() {
+        return resolvedMethodParameters;
+    }
+
+    @Override
+    public ResolvedType getReturnType() {
+        return methodResolver.methodReturnType(handlerMethod);
+    }
+
+    @Override
+    public <T extends Annotation> Optional<T> findControllerAnnotation(Class<T> annotation) {
+        return Optional.fromNullable(AnnotationUtils.findAnnotation(handlerMethod.getBeanType(), annotation));
+    }
+
+    @Override
+    public RequestMappingInfo getRequestMapping() {
+        return null;
+    }
+
+    @Override
+    public HandlerMethod getHandlerMethod() {
+        return handlerMethod;
+    }
+
+    @Override
+    public RequestHandler combine(RequestHandler other) {
+        return other;
+    }
+}
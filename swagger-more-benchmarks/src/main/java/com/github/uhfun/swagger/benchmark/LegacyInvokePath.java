@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.swagger.annotations.ApiParam;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.alibaba.fastjson.parser.Feature.DisableSpecialKeyDetect;
+import static com.alibaba.fastjson.parser.Feature.OrderedField;
+import static com.alibaba.fastjson.parser.Feature.SupportAutoType;
+import static com.github.uhfun.swagger.util.TypeUtils.isComplexObjectType;
+import static com.github.uhfun.swagger.util.TypeUtils.isContainerType;
+import static java.util.Objects.nonNull;
+
+/**
+ * 调用计划之前ApiInvokeController里的方法查找和参数解析, 保留下来作为基准测试的对照组
+ *
+ * @author uhfun
+ */
+public class LegacyInvokePath {
+
+    public static Method getMethod(String methodName, Class<?> clazz) {
+        Optional<Method> methodOptional;
+        if (methodName.contains("_(")) {
+            String[] methodStr = methodName.split("_");
+            methodOptional = Arrays.stream(clazz.getDeclaredMethods())
+                    .filter(m -> m.getName().equals(methodStr[0]))
+                    .filter(m -> ("(" + Stream.of(m.getParameters())
+                            .map(p -> p.getType().getSimpleName())
+                            .collect(Collectors.joining(", ")) + ")").equals(methodStr[1]))
+                    .findAny();
+        } else {
+            methodOptional = Arrays.stream(clazz.getDeclaredMethods())
+                    .filter(m -> m.getName().equals(methodName))
+                    .filter(m -> Modifier.isPublic(m.getModifiers()))
+                    .findAny();
+        }
+        return methodOptional.orElseThrow(() -> new SwaggerMoreException("找不到方法: " + methodName));
+    }
+
+    public static Object[] bind(Method method, Map<String, String[]> form, String body) {
+        ApiMethod apiMethod = AnnotationUtils.findAnnotation(method, ApiMethod.class);
+        Map<String, Parameter> parameterMap = getParameterMap(nonNull(apiMethod) ? Stream.of(apiMethod.params()).map(ApiParam::name).collect(Collectors.toList()) : Lists.newArrayList(), method);
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, String[]> entry : form.entrySet()) {
+            String name = entry.getKey();
+            List<Object> values = Stream.of(entry.getValue())
+                    .map(o -> o.startsWith("[") || o.startsWith("{") ? JSONObject.parseObject(o, SupportAutoType, OrderedField) : o).collect(Collectors.toList());
+            object.put(name, parameterMap.get(name) == null || !isContainerType(parameterMap.get(name).getType()) ? values.get(0) : values);
+        }
+        List<Object> params = Lists.newArrayList();
+        String payload = StringUtils.isEmpty(body) ? object.toJSONString() : body;
+        if (method.getParameterTypes().length == 1 && isComplexObjectType(method.getParameterTypes()[0])) {
+            params.add(JSONObject.parseObject(payload, method.getParameters()[0].getParameterizedType(), SupportAutoType, OrderedField));
+        } else {
+            parameterMap.keySet().forEach((name) -> {
+                String arg = JSONObject.parseObject(payload, DisableSpecialKeyDetect, OrderedField).getString(name);
+                params.add(StringUtils.isEmpty(arg) ? null : arg.startsWith("[") || arg.startsWith("{")
+                        ? JSONObject.parseObject(arg, parameterMap.get(name).getParameterizedType(), SupportAutoType, OrderedField)
+                        : TypeUtils.cast(arg, parameterMap.get(name).getParameterizedType(), ParserConfig.getGlobalInstance()));
+            });
+        }
+        return params.toArray();
+    }
+
+    private static Map<String, Parameter> getParameterMap(List<String> names, Method method) {
+        Map<String, Parameter> map = Maps.newLinkedHashMap();
+        if (names.isEmpty()) {
+            Stream.of(method.getParameters()).forEach(parameter -> map.put(parameter.getName().replace("arg", "param"), parameter));
+            return map;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            map.put(names.get(i), method.getParameters()[i]);
+        }
+        return map;
+    }
+}
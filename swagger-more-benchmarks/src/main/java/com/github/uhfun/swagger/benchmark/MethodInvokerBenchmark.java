@@ -0,0 +1,131 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.github.uhfun.swagger.benchmark.fixture.Fixtures;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import com.github.uhfun.swagger.invoke.ApiMethodInvoker;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务方法的调用: Method.invoke与MethodHandle调用器, 基本类型参数、DTO参数以及多个方法轮流调用
+ *
+ * @author uhfun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+    private Object target;
+    private ApiMethodInvoker primitiveReflective;
+    private ApiMethodInvoker dtoReflective;
+    private ApiMethodInvoker primitiveHandle;
+    private ApiMethodInvoker dtoHandle;
+    private Object[] primitiveArgs;
+    private Object[] dtoArgs;
+    private ApiMethodInvoker[] mixedReflective;
+    private ApiMethodInvoker[] mixedHandle;
+    private ApiMethodInvoker[] mixedSelected;
+    private Object[][] mixedArgs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Map<String, ApiInvocationPlan> plans = Fixtures.plans();
+        ApiInvocationPlan primitivePlan = plans.get("/OrderService/points");
+        ApiInvocationPlan dtoPlan = plans.get("/OrderService/discount");
+        target = primitivePlan.target();
+        Method primitiveMethod = primitivePlan.method();
+        Method dtoMethod = dtoPlan.method();
+        primitiveReflective = ApiMethodInvoker.reflective(primitiveMethod);
+        dtoReflective = ApiMethodInvoker.reflective(dtoMethod);
+        primitiveHandle = ApiMethodInvoker.methodHandle(primitiveMethod);
+        dtoHandle = ApiMethodInvoker.methodHandle(dtoMethod);
+        primitiveArgs = new Object[]{3, 12800L, 1.5d, true};
+        dtoArgs = new Object[]{Fixtures.order(1, 5), Collections.singletonList("NEW_USER")};
+        String[] mixed = {"/OrderService/points", "/OrderService/discount", "/OrderService/get_(Long)",
+                "/OrderService/pay", "/OrderService/create", "/OrderService/comment"};
+        mixedReflective = new ApiMethodInvoker[mixed.length];
+        mixedHandle = new ApiMethodInvoker[mixed.length];
+        mixedSelected = new ApiMethodInvoker[mixed.length];
+        mixedArgs = new Object[][]{primitiveArgs, dtoArgs, {1L}, {1L, BigDecimal.TEN, "alipay"},
+                {Fixtures.order(2, 5)}, {1L, 5, "good"}};
+        for (int i = 0; i < mixed.length; i++) {
+            Method method = plans.get(mixed[i]).method();
+            mixedReflective[i] = ApiMethodInvoker.reflective(method);
+            mixedHandle[i] = ApiMethodInvoker.methodHandle(method);
+            mixedSelected[i] = ApiMethodInvoker.of(method);
+        }
+    }
+
+    @Benchmark
+    public Object primitiveMethodInvoke() throws InvocationTargetException, IllegalAccessException {
+        return primitiveReflective.invoke(target, primitiveArgs);
+    }
+
+    @Benchmark
+    public Object primitiveMethodHandle() throws InvocationTargetException, IllegalAccessException {
+        return primitiveHandle.invoke(target, primitiveArgs);
+    }
+
+    @Benchmark
+    public Object dtoMethodInvoke() throws InvocationTargetException, IllegalAccessException {
+        return dtoReflective.invoke(target, dtoArgs);
+    }
+
+    /**
+     * 轮流调用不同签名的方法, 调用点不再是单态的, 更接近实际的请求分布
+     */
+    @Benchmark
+    public Object mixedMethodInvoke() throws InvocationTargetException, IllegalAccessException {
+        int i = next++ % mixedArgs.length;
+        return mixedReflective[i].invoke(target, mixedArgs[i]);
+    }
+
+    @Benchmark
+    public Object mixedMethodHandle() throws InvocationTargetException, IllegalAccessException {
+        int i = next++ % mixedArgs.length;
+        return mixedHandle[i].invoke(target, mixedArgs[i]);
+    }
+
+    /**
+     * ApiMethodInvoker.of按签名选择的调用器, 即调用计划实际使用的
+     */
+    @Benchmark
+    public Object mixedSelected() throws InvocationTargetException, IllegalAccessException {
+        int i = next++ % mixedArgs.length;
+        return mixedSelected[i].invoke(target, mixedArgs[i]);
+    }
+
+    @Benchmark
+    public Object dtoMethodHandle() throws InvocationTargetException, IllegalAccessException {
+        return dtoHandle.invoke(target, dtoArgs);
+    }
+}
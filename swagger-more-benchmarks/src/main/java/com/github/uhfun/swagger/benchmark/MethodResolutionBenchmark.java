@@ -0,0 +1,62 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.github.uhfun.swagger.benchmark.fixture.Fixtures;
+import com.github.uhfun.swagger.benchmark.fixture.OrderServiceImpl;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按请求路径查找调用方法: 每次遍历getDeclaredMethods 与 启动时生成的调用计划
+ *
+ * @author uhfun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodResolutionBenchmark {
+
+    @Param({"refund", "get_(Long, Integer)"})
+    private String methodName;
+
+    private Map<String, ApiInvocationPlan> plans;
+
+    @Setup
+    public void setup() {
+        plans = Fixtures.plans();
+    }
+
+    @Benchmark
+    public Method legacyScan() {
+        return LegacyInvokePath.getMethod(methodName, OrderServiceImpl.class);
+    }
+
+    @Benchmark
+    public ApiInvocationPlan planLookup() {
+        return plans.get("/" + "OrderService" + "/" + methodName);
+    }
+}
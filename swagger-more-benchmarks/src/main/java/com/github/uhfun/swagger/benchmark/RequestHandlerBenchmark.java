@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark;
+
+import com.alibaba.dubbo.config.spring.ServiceBean;
+import com.fasterxml.classmate.TypeResolver;
+import com.github.uhfun.swagger.benchmark.fixture.SyntheticServices;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.extension.ApiRequestHandlerProvider;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+import springfox.documentation.RequestHandler;
+import springfox.documentation.spring.web.readers.operation.HandlerMethodResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static springfox.documentation.spi.service.contexts.Orderings.byOperationName;
+import static springfox.documentation.spi.service.contexts.Orderings.byPatternsCondition;
+import static springfox.documentation.spi.service.contexts.Orderings.patternsCondition;
+
+/**
+ * 一万个方法的文档构建: springfox合并、排序、分组和读取operation时对RequestHandler的访问
+ * legacy每次访问都重新计算名称和路径, memoized为构造时计算好的ApiRequestHandler
+ *
+ * @author uhfun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestHandlerBenchmark {
+
+    @Param({"200"})
+    private int services;
+
+    @Param({"50"})
+    private int methodsPerService;
+
+    private List<ServiceBean> beans;
+    private ApiRequestHandlerProvider provider;
+    private List<RequestHandler> memoized;
+    private List<RequestHandler> legacy;
+
+    @Setup
+    public void setup() {
+        TypeResolver typeResolver = new TypeResolver();
+        HandlerMethodResolver methodResolver = new HandlerMethodResolver(typeResolver);
+        beans = SyntheticServices.generate(services, methodsPerService);
+        provider = new ApiRequestHandlerProvider(beans, methodResolver, typeResolver,
+                new SwaggerMoreProperties(new StandardEnvironment()));
+        memoized = provider.requestHandlers(beans);
+        legacy = memoized.stream()
+                .map(h -> new LegacyApiRequestHandler(methodResolver, h.getHandlerMethod(), h.getParameters()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public int legacy() {
+        return build(legacy);
+    }
+
+    @Benchmark
+    public int memoized() {
+        return build(memoized);
+    }
+
+    /**
+     * 构造handler的开销也计算在内, 名称和路径的计算从访问时挪到了构造时
+     */
+    @Benchmark
+    public int memoizedIncludingConstruction() {
+        return build(provider.requestHandlers(beans));
+    }
+
+    /**
+     * 依次模拟DefaultRequestHandlerCombiner、ApiListingReferenceScanner、
+     * ApiListingScanner和ApiOperationReader对handler的访问
+     */
+    private static int build(List<RequestHandler> handlers) {
+        ListMultimap<String, RequestHandler> byPath = LinkedListMultimap.create();
+        for (RequestHandler each : handlers) {
+            byPath.put(patternsCondition(each).toString(), each);
+        }
+        List<RequestHandler> combined = byPatternsCondition().sortedCopy(byPath.values());
+        ListMultimap<String, RequestHandler> byGroup = LinkedListMultimap.create();
+        for (RequestHandler each : combined) {
+            byGroup.put(each.groupName(), each);
+        }
+        int checksum = 0;
+        for (String group : byGroup.keySet()) {
+            for (RequestHandler each : byOperationName().sortedCopy(byGroup.get(group))) {
+                checksum += each.key().hashCode();
+                checksum += each.getPatternsCondition().getPatterns().size();
+                checksum += each.supportedMethods().size() + each.produces().size() + each.consumes().size();
+                checksum += each.getName().length();
+                checksum += each.getReturnType().hashCode();
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark.fixture;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import com.google.common.collect.ImmutableMap;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.pathOf;
+
+/**
+ * 基准测试用的数据和调用计划, 和ApiInvocationRegistry一样按接口方法生成, 但不依赖spring容器
+ *
+ * @author uhfun
+ */
+public class Fixtures {
+
+    public static final OrderServiceImpl SERVICE = new OrderServiceImpl();
+
+    public static Map<String, ApiInvocationPlan> plans() {
+        Map<String, ApiInvocationPlan> plans = new LinkedHashMap<>();
+        for (Method method : OrderService.class.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String key = pathOf(method);
+            plans.putIfAbsent(key, ApiInvocationPlan.of(key, OrderService.class, SERVICE, OrderServiceImpl.class,
+                    AopUtils.getMostSpecificMethod(method, OrderServiceImpl.class)));
+        }
+        return ImmutableMap.copyOf(plans);
+    }
+
+    public static OrderDTO order(long id, int items) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        order.setOrderNo("NO" + id);
+        order.setUserId(10000L + id);
+        order.setUserName("user" + id);
+        order.setStatus(1);
+        order.setAmount(new BigDecimal("199.90"));
+        order.setDiscount(new BigDecimal("10.00"));
+        order.setAddress("浙江省杭州市西湖区文三路" + id + "号");
+        order.setPhone("13800000000");
+        order.setCreateTime(new Date(1546300800000L));
+        order.setUpdateTime(new Date(1546300800000L));
+        order.setItems(IntStream.range(0, items).mapToObj(Fixtures::item).collect(Collectors.toList()));
+        order.setExtra(ImmutableMap.of("source", "app", "channel", "alipay"));
+        return order;
+    }
+
+    public static OrderItemDTO item(int i) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setSkuId(100000L + i);
+        item.setSkuName("商品" + i);
+        item.setQuantity(i % 5 + 1);
+        item.setPrice(new BigDecimal("9.99"));
+        item.setRemark("remark" + i);
+        return item;
+    }
+
+    public static List<OrderDTO> orders(int count, int items) {
+        return IntStream.range(0, count).mapToObj(i -> order(i, items)).collect(Collectors.toList());
+    }
+
+    /**
+     * 表单提交时每个参数都是字符串, 复杂对象是JSON文本, 集合参数的每个元素是一个同名参数
+     */
+    public static Map<String, String[]> refundForm(int items) {
+        Map<String, String[]> form = new LinkedHashMap<>();
+        form.put("id", new String[]{"1"});
+        form.put("items", order(1, items).getItems().stream().map(JSONObject::toJSONString).toArray(String[]::new));
+        form.put("reason", new String[]{"不想要了"});
+        return form;
+    }
+
+    public static String refundBody(int items) {
+        JSONObject body = new JSONObject(true);
+        body.put("id", 1);
+        body.put("items", order(1, items).getItems());
+        body.put("reason", "不想要了");
+        return body.toJSONString();
+    }
+}
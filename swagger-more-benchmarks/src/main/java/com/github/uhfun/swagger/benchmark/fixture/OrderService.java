@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark.fixture;
+
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import io.swagger.annotations.ApiParam;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模拟一个中等规模的dubbo服务, 包含重载方法、单个DTO入参和多参数入参
+ *
+ * @author uhfun
+ */
+public interface OrderService {
+
+    @ApiMethod(value = "创建订单", params = @ApiParam(name = "order", value = "订单"))
+    OrderDTO create(OrderDTO order);
+
+    @ApiMethod(value = "修改订单", params = @ApiParam(name = "order", value = "订单"))
+    OrderDTO update(OrderDTO order);
+
+    @ApiMethod(value = "查询订单", params = @ApiParam(name = "id", value = "订单id"))
+    OrderDTO get(Long id);
+
+    @ApiMethod(value = "按订单号查询订单", params = @ApiParam(name = "orderNo", value = "订单号"))
+    OrderDTO get(String orderNo);
+
+    @ApiMethod(value = "按用户查询订单", params = {
+            @ApiParam(name = "userId", value = "用户id"),
+            @ApiParam(name = "status", value = "状态")})
+    OrderDTO get(Long userId, Integer status);
+
+    @ApiMethod(value = "分页查询订单", params = @ApiParam(name = "query", value = "查询条件"))
+    List<OrderDTO> list(OrderQuery query);
+
+    @ApiMethod(value = "按用户分页查询订单", params = {
+            @ApiParam(name = "userId", value = "用户id"),
+            @ApiParam(name = "pageNo", value = "页码"),
+            @ApiParam(name = "pageSize", value = "每页条数")})
+    List<OrderDTO> list(Long userId, Integer pageNo, Integer pageSize);
+
+    @ApiMethod(value = "批量查询订单", params = @ApiParam(name = "ids", value = "订单id"))
+    List<OrderDTO> listByIds(List<Long> ids);
+
+    @ApiMethod(value = "统计订单", params = @ApiParam(name = "query", value = "查询条件"))
+    Long count(OrderQuery query);
+
+    @ApiMethod(value = "取消订单", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "reason", value = "原因")})
+    void cancel(Long id, String reason);
+
+    @ApiMethod(value = "支付订单", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "amount", value = "金额"),
+            @ApiParam(name = "channel", value = "支付渠道")})
+    Boolean pay(Long id, BigDecimal amount, String channel);
+
+    @ApiMethod(value = "退款", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "items", value = "退款明细"),
+            @ApiParam(name = "reason", value = "原因")})
+    Boolean refund(Long id, List<OrderItemDTO> items, String reason);
+
+    @ApiMethod(value = "添加明细", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "item", value = "明细")})
+    OrderDTO addItem(Long id, OrderItemDTO item);
+
+    @ApiMethod(value = "删除明细", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "skuId", value = "skuId")})
+    OrderDTO removeItem(Long id, Long skuId);
+
+    @ApiMethod(value = "修改地址", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "address", value = "地址"),
+            @ApiParam(name = "phone", value = "电话")})
+    void changeAddress(Long id, String address, String phone);
+
+    @ApiMethod(value = "修改扩展字段", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "extra", value = "扩展字段")})
+    void changeExtra(Long id, Map<String, String> extra);
+
+    @ApiMethod(value = "按状态分组统计", params = @ApiParam(name = "userId", value = "用户id"))
+    Map<Integer, Long> countByStatus(Long userId);
+
+    @ApiMethod(value = "批量创建订单", params = @ApiParam(name = "orders", value = "订单"))
+    List<OrderDTO> batchCreate(List<OrderDTO> orders);
+
+    @ApiMethod(value = "关闭超时订单", params = @ApiParam(name = "minutes", value = "超时分钟"))
+    Integer closeTimeout(Integer minutes);
+
+    @ApiMethod(value = "发货", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "expressNo", value = "快递单号"),
+            @ApiParam(name = "company", value = "快递公司")})
+    void deliver(Long id, String expressNo, String company);
+
+    @ApiMethod(value = "确认收货", params = @ApiParam(name = "id", value = "订单id"))
+    void confirm(Long id);
+
+    @ApiMethod(value = "评价", params = {
+            @ApiParam(name = "id", value = "订单id"),
+            @ApiParam(name = "score", value = "评分"),
+            @ApiParam(name = "content", value = "内容")})
+    void comment(Long id, Integer score, String content);
+
+    @ApiMethod(value = "导出订单", params = @ApiParam(name = "query", value = "查询条件"))
+    String export(OrderQuery query);
+
+    @ApiMethod(value = "计算优惠", params = {
+            @ApiParam(name = "order", value = "订单"),
+            @ApiParam(name = "coupons", value = "优惠券")})
+    BigDecimal discount(OrderDTO order, List<String> coupons);
+
+    @ApiMethod(value = "计算积分", params = {
+            @ApiParam(name = "level", value = "会员等级"),
+            @ApiParam(name = "amount", value = "金额(分)"),
+            @ApiParam(name = "rate", value = "积分倍率"),
+            @ApiParam(name = "vip", value = "是否vip")})
+    long points(int level, long amount, double rate, boolean vip);
+}
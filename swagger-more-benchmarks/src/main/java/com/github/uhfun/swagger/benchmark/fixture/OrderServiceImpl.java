@@ -0,0 +1,154 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark.fixture;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 只做最少的工作, 让基准测试的结果集中在调用链路本身
+ *
+ * @author uhfun
+ */
+public class OrderServiceImpl implements OrderService {
+
+    private final OrderDTO sample = Fixtures.order(1L, 20);
+
+    @Override
+    public OrderDTO create(OrderDTO order) {
+        return order;
+    }
+
+    @Override
+    public OrderDTO update(OrderDTO order) {
+        return order;
+    }
+
+    @Override
+    public OrderDTO get(Long id) {
+        return sample;
+    }
+
+    @Override
+    public OrderDTO get(String orderNo) {
+        return sample;
+    }
+
+    @Override
+    public OrderDTO get(Long userId, Integer status) {
+        return sample;
+    }
+
+    @Override
+    public List<OrderDTO> list(OrderQuery query) {
+        return Collections.singletonList(sample);
+    }
+
+    @Override
+    public List<OrderDTO> list(Long userId, Integer pageNo, Integer pageSize) {
+        return Collections.singletonList(sample);
+    }
+
+    @Override
+    public List<OrderDTO> listByIds(List<Long> ids) {
+        return ids.stream().map(id -> sample).collect(Collectors.toList());
+    }
+
+    @Override
+    public Long count(OrderQuery query) {
+        return 1L;
+    }
+
+    @Override
+    public void cancel(Long id, String reason) {
+    }
+
+    @Override
+    public Boolean pay(Long id, BigDecimal amount, String channel) {
+        return true;
+    }
+
+    @Override
+    public Boolean refund(Long id, List<OrderItemDTO> items, String reason) {
+        return true;
+    }
+
+    @Override
+    public OrderDTO addItem(Long id, OrderItemDTO item) {
+        return sample;
+    }
+
+    @Override
+    public OrderDTO removeItem(Long id, Long skuId) {
+        return sample;
+    }
+
+    @Override
+    public void changeAddress(Long id, String address, String phone) {
+    }
+
+    @Override
+    public void changeExtra(Long id, Map<String, String> extra) {
+    }
+
+    @Override
+    public Map<Integer, Long> countByStatus(Long userId) {
+        return Collections.singletonMap(1, 1L);
+    }
+
+    @Override
+    public List<OrderDTO> batchCreate(List<OrderDTO> orders) {
+        return orders;
+    }
+
+    @Override
+    public Integer closeTimeout(Integer minutes) {
+        return 0;
+    }
+
+    @Override
+    public void deliver(Long id, String expressNo, String company) {
+    }
+
+    @Override
+    public void confirm(Long id) {
+    }
+
+    @Override
+    public void comment(Long id, Integer score, String content) {
+    }
+
+    @Override
+    public String export(OrderQuery query) {
+        return "";
+    }
+
+    @Override
+    public BigDecimal discount(OrderDTO order, List<String> coupons) {
+        return BigDecimal.ZERO;
+    }
+
+    @Override
+    public long points(int level, long amount, double rate, boolean vip) {
+        return (long) (amount * rate) * (vip ? 2 : 1) + level;
+    }
+}
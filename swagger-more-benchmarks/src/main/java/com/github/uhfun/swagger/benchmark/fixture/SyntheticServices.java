@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.benchmark.fixture;
+
+import com.alibaba.dubbo.config.spring.ServiceBean;
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import io.swagger.annotations.Api;
+import javassist.*;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.StringMemberValue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成大量带@Api注解的dubbo接口, 用来模拟上万个方法的文档构建
+ * 每10个方法里有1个重载方法和1个DTO入参的方法, 和真实项目的比例接近
+ *
+ * @author uhfun
+ */
+public class SyntheticServices {
+
+    private static final String PACKAGE = SyntheticServices.class.getPackage().getName() + ".generated.";
+
+    public static List<ServiceBean> generate(int services, int methodsPerService) {
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(SyntheticServices.class.getClassLoader()));
+        ClassLoader loader = new ClassLoader(SyntheticServices.class.getClassLoader()) {
+        };
+        List<ServiceBean> beans = new ArrayList<>(services);
+        try {
+            CtClass dto = pool.get(OrderDTO.class.getName());
+            CtClass query = pool.get(OrderQuery.class.getName());
+            CtClass id = pool.get(Long.class.getName());
+            CtClass keyword = pool.get(String.class.getName());
+            for (int i = 0; i < services; i++) {
+                CtClass ctClass = pool.makeInterface(PACKAGE + "Synthetic" + i + "Service");
+                ConstPool constPool = ctClass.getClassFile().getConstPool();
+                ctClass.getClassFile().addAttribute(annotations(constPool, new Annotation(Api.class.getName(), constPool)));
+                for (int j = 0; j < methodsPerService; j++) {
+                    CtClass[] parameters;
+                    String name = "find" + j;
+                    if (j % 10 == 9) {
+                        name = "find" + (j - 1);
+                        parameters = new CtClass[]{id};
+                    } else if (j % 10 == 3) {
+                        parameters = new CtClass[]{query};
+                    } else {
+                        parameters = new CtClass[]{id, keyword};
+                    }
+                    CtMethod method = new CtMethod(dto, name, parameters, ctClass);
+                    method.setModifiers(Modifier.PUBLIC | Modifier.ABSTRACT);
+                    Annotation apiMethod = new Annotation(ApiMethod.class.getName(), constPool);
+                    apiMethod.addMemberValue("value", new StringMemberValue("方法" + j, constPool));
+                    method.getMethodInfo().addAttribute(annotations(constPool, apiMethod));
+                    ctClass.addMethod(method);
+                }
+                Class<?> interfaceClass = ctClass.toClass(loader, null);
+                ctClass.detach();
+                ServiceBean<Object> bean = new ServiceBean<>();
+                bean.setInterface(interfaceClass);
+                bean.setRef(Proxy.newProxyInstance(loader, new Class[]{interfaceClass}, (proxy, m, args) -> null));
+                beans.add(bean);
+            }
+        } catch (NotFoundException | CannotCompileException e) {
+            throw new IllegalStateException("生成测试接口失败", e);
+        }
+        return beans;
+    }
+
+    private static AnnotationsAttribute annotations(ConstPool constPool, Annotation annotation) {
+        AnnotationsAttribute attribute = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+        attribute.addAnnotation(annotation);
+        return attribute;
+    }
+}
@@ -28,4 +28,5 @@ public class Constant {
     public static final String DOT = ".";
     public static final String UNDERLINE = "_";
     public static final String COMMA = ",";
+    public static final String DUBBO_GROUP_NAME = "dubbo";
 }
@@ -0,0 +1,42 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.common;
+
+/**
+ * @author uhfun
+ */
+public class PayloadTooLargeException extends SwaggerMoreException {
+    private static final long serialVersionUID = 4915836265102857216L;
+
+    public PayloadTooLargeException(long maxBodySize) {
+        super("请求体过大, 最大允许 " + maxBodySize + " 字节");
+    }
+
+    /**
+     * 读请求体时超过上限, fastjson可能把这个异常包装成JSONException, 从异常链中找回
+     */
+    public static PayloadTooLargeException causeOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadTooLargeException) {
+                return (PayloadTooLargeException) cause;
+            }
+        }
+        return null;
+    }
+}
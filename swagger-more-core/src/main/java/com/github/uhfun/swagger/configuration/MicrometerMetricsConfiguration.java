@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.configuration;
+
+import com.github.uhfun.swagger.invoke.ApiInvokeMeterBinder;
+import com.github.uhfun.swagger.invoke.ApiInvokeMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * classpath上有Micrometer时, 把调用指标绑定到容器里的MeterRegistry
+ *
+ * @author uhfun
+ */
+@Configuration
+@Conditional({MicrometerMetricsConfiguration.MicrometerPresentConditional.class})
+public class MicrometerMetricsConfiguration {
+
+    @Bean
+    public ApiInvokeMeterBinder apiInvokeMeterBinder(ApiInvokeMetrics invokeMetrics,
+                                                     ObjectProvider<List<MeterRegistry>> registries) {
+        ApiInvokeMeterBinder binder = new ApiInvokeMeterBinder(invokeMetrics);
+        List<MeterRegistry> available = registries.getIfAvailable();
+        if (nonNull(available)) {
+            // Spring Boot也会绑定MeterBinder, 重复绑定时直接忽略
+            available.forEach(binder::bindTo);
+        }
+        return binder;
+    }
+
+    static final class MicrometerPresentConditional implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", context.getClassLoader());
+        }
+    }
+}
@@ -18,7 +18,13 @@
  */
 package com.github.uhfun.swagger.configuration;
 
+import com.github.uhfun.swagger.web.ApiDocsLazyInterceptor;
+import com.github.uhfun.swagger.web.ApiDocsSnapshotInterceptor;
+import com.github.uhfun.swagger.web.ApiInvokeMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -28,6 +34,25 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter
 @Configuration
 public class ResourceConfig extends WebMvcConfigurerAdapter {
 
+    private final SwaggerMoreProperties properties;
+    private final ApiDocsLazyInterceptor lazyInterceptor;
+    private final ApiDocsSnapshotInterceptor snapshotInterceptor;
+    private final ApiInvokeMetricsInterceptor metricsInterceptor;
+    private final Environment environment;
+
+    @Autowired
+    public ResourceConfig(SwaggerMoreProperties properties,
+                          ApiDocsLazyInterceptor lazyInterceptor,
+                          ApiDocsSnapshotInterceptor snapshotInterceptor,
+                          ApiInvokeMetricsInterceptor metricsInterceptor,
+                          Environment environment) {
+        this.properties = properties;
+        this.lazyInterceptor = lazyInterceptor;
+        this.snapshotInterceptor = snapshotInterceptor;
+        this.metricsInterceptor = metricsInterceptor;
+        this.environment = environment;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry
@@ -40,4 +65,16 @@ public class ResourceConfig extends WebMvcConfigurerAdapter {
                 .addResourceHandler("/api/**")
                 .addResourceLocations("classpath:/META-INF/resources/static/");
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        String apiDocsPath = environment.getProperty("springfox.documentation.swagger.v2.path", "/v2/api-docs");
+        if (properties.docsLazy()) {
+            registry.addInterceptor(lazyInterceptor).addPathPatterns(apiDocsPath);
+        }
+        if (properties.docsSnapshot()) {
+            registry.addInterceptor(snapshotInterceptor).addPathPatterns(apiDocsPath);
+        }
+        registry.addInterceptor(metricsInterceptor).addPathPatterns("/dubbo/**");
+    }
 }
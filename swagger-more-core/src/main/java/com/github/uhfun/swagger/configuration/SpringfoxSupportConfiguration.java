@@ -19,6 +19,7 @@
 package com.github.uhfun.swagger.configuration;
 
 import com.fasterxml.classmate.TypeResolver;
+import com.github.uhfun.swagger.extension.SynchronizedDocumentationCache;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import org.springframework.core.type.AnnotatedTypeMetadata;
@@ -27,7 +28,6 @@ import springfox.documentation.service.PathDecorator;
 import springfox.documentation.spi.service.*;
 import springfox.documentation.spi.service.contexts.Defaults;
 import springfox.documentation.spring.web.DescriptionResolver;
-import springfox.documentation.spring.web.DocumentationCache;
 import springfox.documentation.spring.web.ObjectMapperConfigurer;
 import springfox.documentation.spring.web.json.JacksonModuleRegistrar;
 import springfox.documentation.spring.web.json.JsonSerializer;
@@ -85,8 +85,8 @@ public class SpringfoxSupportConfiguration {
     }
 
     @Bean
-    public DocumentationCache resourceGroupCache() {
-        return new DocumentationCache();
+    public SynchronizedDocumentationCache resourceGroupCache() {
+        return new SynchronizedDocumentationCache();
     }
 
     @Bean
@@ -37,6 +37,7 @@ import javax.servlet.ServletContext;
 import java.util.Collections;
 import java.util.List;
 
+import static com.github.uhfun.swagger.common.Constant.DUBBO_GROUP_NAME;
 import static com.google.common.collect.Lists.newArrayList;
 import static springfox.documentation.spi.DocumentationType.SWAGGER_2;
 
@@ -64,7 +65,7 @@ public class SwaggerConfig {
                 .apis(ExtendRequestHandlerSelectors.dubboApi())
                 .paths(PathSelectors.any())
                 .build()
-                .groupName("dubbo")
+                .groupName(DUBBO_GROUP_NAME)
                 .produces(Sets.newHashSet("application/json", "text/plain"))
                 .consumes(Collections.singleton("application/json"))
                 .useDefaultResponseMessages(false)
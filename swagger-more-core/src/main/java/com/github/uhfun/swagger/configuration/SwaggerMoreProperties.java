@@ -0,0 +1,254 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * swagger-more 的可配置项, 统一以 swagger.more 为前缀
+ *
+ * @author uhfun
+ */
+@Component
+public class SwaggerMoreProperties {
+    public static final String PREFIX = "swagger.more.";
+
+    private final long maxBodySize;
+    private final boolean asyncInvoke;
+    private final long asyncTimeout;
+    private final int invokeThreads;
+    private final int invokeQueueCapacity;
+    private final boolean genericInvoke;
+    private final int genericCacheSize;
+    private final int genericTimeout;
+    private final String genericUrl;
+    private final String genericRegistry;
+    private final boolean docsSnapshot;
+    private final boolean docsSnapshotGzip;
+    private final boolean docsLazy;
+    private final boolean docsParallel;
+    private final int docsParallelism;
+    private final boolean docsParallelVerify;
+    private final boolean docsIncremental;
+    private final double invokeLogSampleRate;
+    private final int invokeLogBufferSize;
+    private final int invokeLogMaxArgsLength;
+    private final String invokeStreamSerializer;
+    private final int invokeStreamMaxElements;
+    private final int invokeBatchParallelism;
+    private final int docsModelCacheSize;
+
+    @Autowired
+    public SwaggerMoreProperties(Environment environment) {
+        this.maxBodySize = environment.getProperty(PREFIX + "invoke.max-body-size", Long.class, 10L * 1024 * 1024);
+        this.asyncInvoke = environment.getProperty(PREFIX + "invoke.async", Boolean.class, false);
+        this.asyncTimeout = environment.getProperty(PREFIX + "invoke.async.timeout", Long.class, 60000L);
+        this.invokeThreads = environment.getProperty(PREFIX + "invoke.threads", Integer.class, Runtime.getRuntime().availableProcessors() * 2);
+        this.invokeQueueCapacity = environment.getProperty(PREFIX + "invoke.queue-capacity", Integer.class, 256);
+        this.genericInvoke = "generic".equalsIgnoreCase(environment.getProperty(PREFIX + "invoke.mode", "local"));
+        this.genericCacheSize = environment.getProperty(PREFIX + "invoke.generic.cache-size", Integer.class, 64);
+        this.genericTimeout = environment.getProperty(PREFIX + "invoke.generic.timeout", Integer.class, 10000);
+        this.genericUrl = environment.getProperty(PREFIX + "invoke.generic.url");
+        this.genericRegistry = environment.getProperty(PREFIX + "invoke.generic.registry");
+        this.docsSnapshot = environment.getProperty(PREFIX + "docs.snapshot", Boolean.class, false);
+        this.docsSnapshotGzip = environment.getProperty(PREFIX + "docs.snapshot.gzip", Boolean.class, true);
+        this.docsLazy = environment.getProperty(PREFIX + "docs.lazy", Boolean.class, false);
+        this.docsParallel = environment.getProperty(PREFIX + "docs.parallel", Boolean.class, false);
+        this.docsParallelism = environment.getProperty(PREFIX + "docs.parallelism", Integer.class, Runtime.getRuntime().availableProcessors());
+        this.docsParallelVerify = environment.getProperty(PREFIX + "docs.parallel.verify", Boolean.class, false);
+        this.docsIncremental = environment.getProperty(PREFIX + "docs.incremental", Boolean.class, false);
+        this.invokeLogSampleRate = environment.getProperty(PREFIX + "invoke.log.sample-rate", Double.class, 1.0);
+        this.invokeLogBufferSize = environment.getProperty(PREFIX + "invoke.log.buffer-size", Integer.class, 1024);
+        this.invokeLogMaxArgsLength = environment.getProperty(PREFIX + "invoke.log.max-args-length", Integer.class, 2048);
+        this.invokeStreamSerializer = environment.getProperty(PREFIX + "invoke.stream.serializer");
+        this.invokeStreamMaxElements = environment.getProperty(PREFIX + "invoke.stream.max-elements", Integer.class, 10000);
+        this.invokeBatchParallelism = Math.max(1, environment.getProperty(PREFIX + "invoke.batch.parallelism", Integer.class, invokeThreads));
+        this.docsModelCacheSize = environment.getProperty(PREFIX + "docs.model-cache-size", Integer.class, 1024);
+    }
+
+    /**
+     * 调试接口允许的最大请求体字节数, 小于等于0表示不限制
+     */
+    public long maxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * 是否以Servlet 3异步的方式调用, 避免慢服务占用容器线程
+     */
+    public boolean asyncInvoke() {
+        return asyncInvoke;
+    }
+
+    /**
+     * 异步调用的超时时间, 单位毫秒
+     */
+    public long asyncTimeout() {
+        return asyncTimeout;
+    }
+
+    /**
+     * 执行阻塞调用的线程数
+     */
+    public int invokeThreads() {
+        return invokeThreads;
+    }
+
+    /**
+     * 执行阻塞调用的等待队列长度, 队列满时拒绝调用
+     */
+    public int invokeQueueCapacity() {
+        return invokeQueueCapacity;
+    }
+
+    /**
+     * swagger.more.invoke.mode=generic 时通过dubbo泛化调用远程服务, 默认local直接调用本地对象
+     */
+    public boolean genericInvoke() {
+        return genericInvoke;
+    }
+
+    /**
+     * 缓存的泛化引用个数上限, 超过后按LRU淘汰并销毁
+     */
+    public int genericCacheSize() {
+        return genericCacheSize;
+    }
+
+    /**
+     * 泛化调用的超时时间, 单位毫秒
+     */
+    public int genericTimeout() {
+        return genericTimeout;
+    }
+
+    /**
+     * 点对点直连的地址, 如 dubbo://127.0.0.1:20880, 为空时走注册中心
+     */
+    public String genericUrl() {
+        return genericUrl;
+    }
+
+    /**
+     * 替代服务自身注册中心的地址, 如 multicast://224.5.6.7:1234, 为空时沿用服务的注册中心
+     */
+    public String genericRegistry() {
+        return genericRegistry;
+    }
+
+    /**
+     * 是否缓存序列化后的api-docs, 相同分组和访问地址只序列化一次
+     */
+    public boolean docsSnapshot() {
+        return docsSnapshot;
+    }
+
+    /**
+     * 缓存的api-docs是否同时保存gzip压缩后的内容, 客户端支持时直接返回
+     */
+    public boolean docsSnapshotGzip() {
+        return docsSnapshotGzip;
+    }
+
+    /**
+     * 启动时只登记接口分组, 文档在第一次访问对应分组时才扫描生成
+     */
+    public boolean docsLazy() {
+        return docsLazy;
+    }
+
+    /**
+     * 是否按接口分组并行扫描文档, 结果按分组名合并, 与顺序扫描的输出一致
+     */
+    public boolean docsParallel() {
+        return docsParallel;
+    }
+
+    /**
+     * 并行扫描文档的线程数
+     */
+    public int docsParallelism() {
+        return docsParallelism;
+    }
+
+    /**
+     * 并行扫描后再以并行度1和顺序扫描各生成一次, 序列化结果不一致时启动失败
+     */
+    public boolean docsParallelVerify() {
+        return docsParallelVerify;
+    }
+
+    /**
+     * 运行时dubbo服务暴露或取消暴露时, 只重新扫描受影响的接口分组并更新文档和调用计划
+     */
+    public boolean docsIncremental() {
+        return docsIncremental;
+    }
+
+    /**
+     * 调用日志的采样比例, 0到1之间, 0表示不记录
+     */
+    public double invokeLogSampleRate() {
+        return invokeLogSampleRate;
+    }
+
+    /**
+     * 等待后台线程写出的调用日志条数上限, 超出的直接丢弃并计数
+     */
+    public int invokeLogBufferSize() {
+        return invokeLogBufferSize;
+    }
+
+    /**
+     * 调用日志里入参JSON的最大长度, 超出部分截断
+     */
+    public int invokeLogMaxArgsLength() {
+        return invokeLogMaxArgsLength;
+    }
+
+    /**
+     * 默认的流式序列化方式(fastjson, jackson, hessian2), 请求头没有指定时使用, 为空时结果仍由@ResponseBody写出
+     */
+    public String invokeStreamSerializer() {
+        return invokeStreamSerializer;
+    }
+
+    /**
+     * 流式写出集合结果时的元素上限, 超出的部分截断并写出more标记, 小于等于0不限制
+     */
+    public int invokeStreamMaxElements() {
+        return invokeStreamMaxElements;
+    }
+
+    /**
+     * 并行批量调用时同时在途的调用数上限, 默认与执行线程数相同, 其余调用等前面的完成后再提交
+     */
+    public int invokeBatchParallelism() {
+        return invokeBatchParallelism;
+    }
+
+    /**
+     * 缓存的参数模型类型个数上限, 超过后按LRU淘汰
+     */
+    public int docsModelCacheSize() {
+        return docsModelCacheSize;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.fasterxml.classmate.TypeResolver;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import springfox.documentation.RequestHandler;
+import springfox.documentation.builders.DocumentationBuilder;
+import springfox.documentation.builders.ResourceListingBuilder;
+import springfox.documentation.schema.AlternateTypeRule;
+import springfox.documentation.schema.AlternateTypeRuleConvention;
+import springfox.documentation.service.ApiListing;
+import springfox.documentation.service.ApiListingReference;
+import springfox.documentation.service.Documentation;
+import springfox.documentation.service.ResourceListing;
+import springfox.documentation.service.Tag;
+import springfox.documentation.spi.service.DocumentationPlugin;
+import springfox.documentation.spi.service.contexts.Defaults;
+import springfox.documentation.spring.web.plugins.DefaultConfiguration;
+import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsManager;
+import springfox.documentation.spring.web.scanners.ApiDocumentationScanner;
+
+import javax.servlet.ServletContext;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.uhfun.swagger.common.Constant.DUBBO_GROUP_NAME;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.google.common.collect.Sets.newTreeSet;
+import static springfox.documentation.builders.BuilderDefaults.nullToEmptyList;
+import static springfox.documentation.service.Tags.tagComparator;
+import static springfox.documentation.spi.service.contexts.Orderings.listingReferencePathComparator;
+
+/**
+ * 用指定的handler子集生成文档, 以及把多个部分文档合并成一个, 和DocumentationPluginsBootstrapper的扫描过程保持一致
+ *
+ * @author uhfun
+ */
+@Component
+public class ApiDocumentationBuilder {
+
+    private final DocumentationPluginsManager pluginsManager;
+    private final ApiDocumentationScanner scanner;
+    private final DefaultConfiguration defaultConfiguration;
+    private final List<AlternateTypeRuleConvention> typeConventions;
+    private final List<Docket> dockets;
+    private final ApiOperationNameGenerator nameGenerator;
+
+    @Autowired
+    public ApiDocumentationBuilder(DocumentationPluginsManager pluginsManager,
+                                   ApiDocumentationScanner scanner,
+                                   Defaults defaults,
+                                   TypeResolver typeResolver,
+                                   ServletContext servletContext,
+                                   @Autowired(required = false) List<AlternateTypeRuleConvention> typeConventions,
+                                   List<Docket> dockets,
+                                   ApiOperationNameGenerator nameGenerator) {
+        this.pluginsManager = pluginsManager;
+        this.scanner = scanner;
+        this.defaultConfiguration = new DefaultConfiguration(defaults, typeResolver, servletContext);
+        this.typeConventions = nullToEmptyList(typeConventions);
+        this.dockets = dockets;
+        this.nameGenerator = nameGenerator;
+    }
+
+    public Docket dubboDocket() {
+        return dockets.stream()
+                .filter(docket -> DUBBO_GROUP_NAME.equals(docket.getGroupName()))
+                .findFirst()
+                .orElseThrow(() -> new SwaggerMoreException("找不到分组为" + DUBBO_GROUP_NAME + "的Docket"));
+    }
+
+    public Documentation scan(DocumentationPlugin plugin, List<RequestHandler> handlers) {
+        List<AlternateTypeRule> rules = newArrayList();
+        typeConventions.forEach(convention -> rules.addAll(convention.rules()));
+        return scanner.scan(plugin.configure(pluginsManager
+                .createContextBuilder(plugin.getDocumentationType(), defaultConfiguration)
+                .rules(rules)
+                .requestHandlers(handlers)));
+    }
+
+    /**
+     * 部分文档来自同一个Docket, 除接口列表和标签外的信息都相同, 按顺序合并
+     */
+    public Documentation merge(String groupName, List<Documentation> parts) {
+        Documentation first = parts.get(0);
+        ListMultimap<String, ApiListing> apiListings = MultimapBuilder.treeKeys().arrayListValues().build();
+        Set<Tag> tags = newTreeSet(tagComparator());
+        Set<ApiListingReference> references = newTreeSet(listingReferencePathComparator());
+        for (Documentation part : parts) {
+            apiListings.putAll(part.getApiListings());
+            tags.addAll(part.getTags());
+            references.addAll(part.getResourceListing().getApis());
+        }
+        ResourceListing resourceListing = first.getResourceListing();
+        return new DocumentationBuilder()
+                .name(groupName)
+                .apiListingsByResourceGroupName(apiListings)
+                .produces(newLinkedHashSet(first.getProduces()))
+                .consumes(newLinkedHashSet(first.getConsumes()))
+                .host(first.getHost())
+                .schemes(newLinkedHashSet(first.getSchemes()))
+                .basePath(first.getBasePath())
+                .extensions(first.getVendorExtensions())
+                .tags(tags)
+                .resourceListing(new ResourceListingBuilder()
+                        .apiVersion(resourceListing.getApiVersion())
+                        .apis(newArrayList(references))
+                        .securitySchemes(resourceListing.getSecuritySchemes())
+                        .info(resourceListing.getInfo())
+                        .build())
+                .build();
+    }
+
+    public Documentation rename(String groupName, Documentation documentation) {
+        return merge(groupName, newArrayList(documentation));
+    }
+
+    /**
+     * 文档被丢弃或者要重新扫描时, 归还其中operation占用的名字
+     */
+    public void release(Documentation documentation) {
+        documentation.getApiListings().values().stream()
+                .flatMap(listing -> listing.getApis().stream())
+                .flatMap(api -> api.getOperations().stream())
+                .forEach(operation -> nameGenerator.release(operation.getUniqueId()));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.rpc.Exporter;
+import com.alibaba.dubbo.rpc.ExporterListener;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.github.uhfun.swagger.web.ApplicationHolder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.BiConsumer;
+
+/**
+ * dubbo服务暴露和取消暴露的监听, 通过META-INF/dubbo注册, 转交给spring容器中的IncrementalApiDocumentation.
+ * 监听器由dubbo创建, 容器还未就绪时的事件直接忽略, 启动时的服务由正常的扫描覆盖
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Activate
+public class ApiExporterListener implements ExporterListener {
+
+    @Override
+    public void exported(Exporter<?> exporter) throws RpcException {
+        notify(exporter, IncrementalApiDocumentation::exported);
+    }
+
+    @Override
+    public void unexported(Exporter<?> exporter) {
+        notify(exporter, IncrementalApiDocumentation::unexported);
+    }
+
+    /**
+     * 文档更新失败不能影响服务的暴露, 只记录日志
+     */
+    private void notify(Exporter<?> exporter, BiConsumer<IncrementalApiDocumentation, Exporter<?>> action) {
+        if (!ApplicationHolder.isAvailable()) {
+            return;
+        }
+        try {
+            ApplicationHolder.getBeansOfType(IncrementalApiDocumentation.class).values()
+                    .forEach(documentation -> action.accept(documentation, exporter));
+        } catch (RuntimeException e) {
+            log.warn("[swagger-more] 增量更新文档失败 {}: {}", exporter.getInvoker().getUrl().getServiceKey(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.Resources;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * doclet以-sidecar方式生成的META-INF/swagger-more/api-metadata.json, 首次使用时从classpath读取并合并,
+ * 索引中的值覆盖类上已有注解的同名属性, 合并结果按类和方法缓存; 没有索引的类仍按原来的方式读注解
+ *
+ * @author uhfun
+ */
+@Slf4j
+public final class ApiMetadataIndex {
+
+    public static final String LOCATION = "META-INF/swagger-more/api-metadata.json";
+    public static final int VERSION = 1;
+
+    private ApiMetadataIndex() {
+    }
+
+    /**
+     * 方法名加擦除后的参数描述符, 例如 find(Ljava/lang/Long;I)
+     */
+    public static String methodKey(Method method) {
+        StringBuilder key = new StringBuilder(method.getName()).append('(');
+        for (Class<?> type : method.getParameterTypes()) {
+            key.append(descriptorOf(type));
+        }
+        return key.append(')').toString();
+    }
+
+    private static String descriptorOf(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+        if (!type.isPrimitive()) {
+            return "L" + type.getName().replace('.', '/') + ";";
+        }
+        return String.valueOf(type == boolean.class ? 'Z' : type == long.class ? 'J'
+                : Character.toUpperCase(type.getName().charAt(0)));
+    }
+
+    public static <A extends Annotation> A findAnnotation(Method method, Class<A> annotationType) {
+        if (annotationType == ApiMethod.class) {
+            ApiMethod indexed = indexedApiMethod(method);
+            if (nonNull(indexed)) {
+                return annotationType.cast(indexed);
+            }
+        }
+        return AnnotationUtils.findAnnotation(method, annotationType);
+    }
+
+    public static <A extends Annotation> A findAnnotation(Class<?> clazz, Class<A> annotationType) {
+        if (annotationType == Api.class) {
+            Api indexed = indexedApi(clazz);
+            if (nonNull(indexed)) {
+                return annotationType.cast(indexed);
+            }
+        }
+        return AnnotationUtils.findAnnotation(clazz, annotationType);
+    }
+
+    public static boolean hasAnnotation(Method method, Class<? extends Annotation> annotationType) {
+        return annotationType == ApiMethod.class && nonNull(indexedApiMethod(method))
+                || AnnotatedElementUtils.hasAnnotation(method, annotationType);
+    }
+
+    public static boolean hasAnnotation(Class<?> clazz, Class<? extends Annotation> annotationType) {
+        return annotationType == Api.class && nonNull(indexedApi(clazz))
+                || AnnotatedElementUtils.hasAnnotation(clazz, annotationType);
+    }
+
+    public static int size() {
+        return Holder.CLASSES.size();
+    }
+
+    private static ApiMethod indexedApiMethod(Method method) {
+        if (Holder.CLASSES.isEmpty()) {
+            return null;
+        }
+        ApiMethod merged = Holder.METHODS.get(method);
+        if (nonNull(merged)) {
+            return merged;
+        }
+        MethodEntry entry = methodEntryOf(method);
+        if (isNull(entry)) {
+            return null;
+        }
+        merged = entry.merge(AnnotationUtils.findAnnotation(method, ApiMethod.class));
+        Holder.METHODS.putIfAbsent(method, merged);
+        return merged;
+    }
+
+    private static MethodEntry methodEntryOf(Method method) {
+        String key = methodKey(method);
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(method.getDeclaringClass())) {
+            ClassEntry entry = Holder.CLASSES.get(type.getName());
+            if (nonNull(entry) && entry.methods.containsKey(key)) {
+                return entry.methods.get(key);
+            }
+        }
+        for (Class<?> type = method.getDeclaringClass(); nonNull(type); type = type.getSuperclass()) {
+            ClassEntry entry = Holder.CLASSES.get(type.getName());
+            if (nonNull(entry) && entry.methods.containsKey(key)) {
+                return entry.methods.get(key);
+            }
+        }
+        return null;
+    }
+
+    private static Api indexedApi(Class<?> clazz) {
+        if (Holder.CLASSES.isEmpty()) {
+            return null;
+        }
+        Api merged = Holder.APIS.get(clazz);
+        if (nonNull(merged)) {
+            return merged;
+        }
+        ClassEntry entry = classEntryOf(clazz);
+        if (isNull(entry)) {
+            return null;
+        }
+        merged = entry.merge(AnnotationUtils.findAnnotation(clazz, Api.class));
+        Holder.APIS.putIfAbsent(clazz, merged);
+        return merged;
+    }
+
+    private static ClassEntry classEntryOf(Class<?> clazz) {
+        ClassEntry entry = Holder.CLASSES.get(clazz.getName());
+        if (nonNull(entry)) {
+            return entry;
+        }
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(clazz)) {
+            if (nonNull(entry = Holder.CLASSES.get(type.getName()))) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 索引中的值覆盖在类上已有注解的属性之上, 索引没有记录的属性(如@Api的description、@ApiParam的required)保持不变
+     */
+    private static Map<String, Object> attributesOf(Annotation annotation) {
+        return isNull(annotation) ? Maps.newHashMap() : Maps.newHashMap(AnnotationUtils.getAnnotationAttributes(annotation));
+    }
+
+    private static final class Holder {
+        private static final Map<String, ClassEntry> CLASSES = load();
+        private static final Map<Class<?>, Api> APIS = new ConcurrentHashMap<>();
+        private static final Map<Method, ApiMethod> METHODS = new ConcurrentHashMap<>();
+
+        private static Map<String, ClassEntry> load() {
+            Map<String, ClassEntry> classes = Maps.newHashMap();
+            try {
+                Enumeration<URL> resources = ClassUtils.getDefaultClassLoader().getResources(LOCATION);
+                while (resources.hasMoreElements()) {
+                    URL url = resources.nextElement();
+                    JSONObject index = JSON.parseObject(Resources.toString(url, UTF_8));
+                    if (index.getIntValue("version") != VERSION) {
+                        log.warn("[swagger-more] 忽略版本不一致的元数据索引 {}", url);
+                        continue;
+                    }
+                    JSONObject entries = index.getJSONObject("classes");
+                    entries.keySet().forEach(className -> classes.put(className, ClassEntry.of(entries.getJSONObject(className))));
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("[swagger-more] 读取元数据索引失败, 使用类上的注解", e);
+                return ImmutableMap.of();
+            }
+            if (!classes.isEmpty()) {
+                log.info("[swagger-more] 已加载{}个类的元数据索引", classes.size());
+            }
+            return ImmutableMap.copyOf(classes);
+        }
+    }
+
+    private static final class ClassEntry {
+        private final Map<String, Object> api;
+        private final Map<String, MethodEntry> methods;
+
+        private ClassEntry(Map<String, Object> api, Map<String, MethodEntry> methods) {
+            this.api = api;
+            this.methods = methods;
+        }
+
+        private static ClassEntry of(JSONObject json) {
+            JSONArray tags = json.getJSONArray("tags");
+            Map<String, Object> api = ImmutableMap.of(
+                    "tags", isNull(tags) ? new String[0] : tags.toArray(new String[0]),
+                    "hidden", json.getBooleanValue("hidden"));
+            ImmutableMap.Builder<String, MethodEntry> methods = ImmutableMap.builder();
+            JSONObject methodsJson = json.getJSONObject("methods");
+            if (nonNull(methodsJson)) {
+                methodsJson.keySet().forEach(key -> methods.put(key, MethodEntry.of(methodsJson.getJSONObject(key))));
+            }
+            return new ClassEntry(api, methods.build());
+        }
+
+        private Api merge(Api existing) {
+            Map<String, Object> attributes = attributesOf(existing);
+            attributes.putAll(api);
+            return AnnotationUtils.synthesizeAnnotation(attributes, Api.class, null);
+        }
+    }
+
+    private static final class MethodEntry {
+        private final Map<String, Object> apiMethod;
+        private final List<Map<String, Object>> params;
+
+        private MethodEntry(Map<String, Object> apiMethod, List<Map<String, Object>> params) {
+            this.apiMethod = apiMethod;
+            this.params = params;
+        }
+
+        private static MethodEntry of(JSONObject json) {
+            Map<String, Object> apiMethod = ImmutableMap.<String, Object>builder()
+                    .put("value", Strings.nullToEmpty(json.getString("value")))
+                    .put("notes", Strings.nullToEmpty(json.getString("notes")))
+                    .put("returnDescription", Strings.nullToEmpty(json.getString("returnDescription")))
+                    .put("hidden", json.getBooleanValue("hidden"))
+                    .put("deprecated", json.getBooleanValue("deprecated"))
+                    .build();
+            JSONArray paramsJson = json.getJSONArray("params");
+            ImmutableList.Builder<Map<String, Object>> params = ImmutableList.builder();
+            for (int i = 0; nonNull(paramsJson) && i < paramsJson.size(); i++) {
+                params.add(ImmutableMap.of(
+                        "name", Strings.nullToEmpty(paramsJson.getJSONObject(i).getString("name")),
+                        "value", Strings.nullToEmpty(paramsJson.getJSONObject(i).getString("value"))));
+            }
+            return new MethodEntry(apiMethod, params.build());
+        }
+
+        /**
+         * 参数按下标和已有的@ApiParam合并
+         */
+        private ApiMethod merge(ApiMethod existing) {
+            Map<String, Object> attributes = attributesOf(existing);
+            attributes.putAll(apiMethod);
+            ApiParam[] existingParams = isNull(existing) ? new ApiParam[0] : existing.params();
+            ApiParam[] merged = new ApiParam[params.size()];
+            for (int i = 0; i < merged.length; i++) {
+                Map<String, Object> param = attributesOf(i < existingParams.length ? existingParams[i] : null);
+                param.putAll(params.get(i));
+                merged[i] = AnnotationUtils.synthesizeAnnotation(param, ApiParam.class, null);
+            }
+            attributes.put("params", merged);
+            return AnnotationUtils.synthesizeAnnotation(attributes, ApiMethod.class, null);
+        }
+    }
+}
@@ -21,10 +21,19 @@ package com.github.uhfun.swagger.extension;
 import com.fasterxml.classmate.ResolvedType;
 import com.fasterxml.classmate.TypeResolver;
 import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
 import com.github.uhfun.swagger.util.TypeUtils;
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import io.swagger.annotations.ApiModel;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 import springfox.documentation.service.ResolvedMethodParameter;
@@ -35,21 +44,33 @@ import springfox.documentation.spi.service.contexts.RequestMappingContext;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 
 /**
+ * 同一个参数类型(如PageResult<List<UserDTO>>)会在大量方法中重复出现,
+ * 展开后的模型类型按ResolvedType缓存, 重复的类型只需一次查找, 缓存个数由swagger.more.docs.model-cache-size限制
+ *
  * @author uhfun
  */
+@Slf4j
 @Component
-public class ApiMethodModelsProvider implements OperationModelsProviderPlugin {
+public class ApiMethodModelsProvider implements OperationModelsProviderPlugin, ApplicationListener<ContextRefreshedEvent> {
 
     private final TypeResolver typeResolver;
+    private final Cache<ResolvedType, List<ResolvedType>> modelClosures;
 
     @Autowired
-    public ApiMethodModelsProvider(TypeResolver typeResolver) {
+    public ApiMethodModelsProvider(TypeResolver typeResolver, SwaggerMoreProperties properties) {
         this.typeResolver = typeResolver;
+        this.modelClosures = CacheBuilder.newBuilder()
+                .maximumSize(properties.docsModelCacheSize())
+                .recordStats()
+                .build();
     }
 
     @Override
@@ -73,8 +94,20 @@ public class ApiMethodModelsProvider implements OperationModelsProviderPlugin {
     }
 
     private List<ResolvedType> collectAllTypes(RequestMappingContext context, ResolvedMethodParameter parameter) {
+        ResolvedType parameterType = context.alternateFor(parameter.getParameterType());
+        try {
+            return modelClosures.get(parameterType, () -> modelClosureOf(parameterType));
+        } catch (ExecutionException e) {
+            throw new SwaggerMoreException("Collect model types of " + parameterType + " error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 泛型绑定展开后的全部模型类型, 以及@ApiModel声明的子类型
+     */
+    private List<ResolvedType> modelClosureOf(ResolvedType parameterType) {
         List<ResolvedType> allTypes = newArrayList();
-        for (ResolvedType type : collectBindingTypes(context.alternateFor(parameter.getParameterType()), newArrayList())) {
+        for (ResolvedType type : collectBindingTypes(parameterType, newArrayList(), newHashSet())) {
             ApiModel apiModel = AnnotationUtils.getAnnotation(type.getErasedType(), ApiModel.class);
             allTypes.add(type);
             if (apiModel != null) {
@@ -83,23 +116,45 @@ public class ApiMethodModelsProvider implements OperationModelsProviderPlugin {
                         .map(typeResolver::resolve).collect(Collectors.toList()));
             }
         }
-        return allTypes;
+        return ImmutableList.copyOf(allTypes);
     }
 
-    private List<ResolvedType> collectBindingTypes(ResolvedType type, List<ResolvedType> types) {
+    /**
+     * visiting按ResolvedType的equals判断, 同一个类型(如递归的泛型绑定)在展开路径上再次出现时停止
+     */
+    private List<ResolvedType> collectBindingTypes(ResolvedType type, List<ResolvedType> types, Set<ResolvedType> visiting) {
+        if (!visiting.add(type)) {
+            return types;
+        }
         if (TypeUtils.isComplexObjectType(type.getErasedType())) {
             types.add(type);
         }
         if (TypeUtils.isBaseType(type.getErasedType())
                 || type.getTypeBindings().isEmpty()) {
+            visiting.remove(type);
             return types;
         }
         for (ResolvedType resolvedType : type.getTypeBindings().getTypeParameters()) {
-            collectBindingTypes(resolvedType, types);
+            collectBindingTypes(resolvedType, types, visiting);
         }
+        visiting.remove(type);
         return types;
     }
 
+    public CacheStats modelClosureStats() {
+        return modelClosures.stats();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        CacheStats stats = modelClosureStats();
+        if (stats.requestCount() == 0) {
+            return;
+        }
+        log.info("[swagger-more] 模型类型缓存: {}个类型, 命中{}次, 未命中{}次, 命中率: {}",
+                modelClosures.size(), stats.hitCount(), stats.missCount(), String.format("%.2f", stats.hitRate()));
+    }
+
     @Override
     public boolean supports(DocumentationType delimiter) {
         return true;
@@ -0,0 +1,210 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import springfox.documentation.OperationNameGenerator;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * 和CachingOperationNameGenerator生成相同的名字, 但可以在多个线程中同时扫描,
+ * 并且丢弃或重新生成的文档可以归还已经占用的名字, 避免再次扫描时出现_1这样的后缀.
+ * 并行扫描时各分组先在{@link #record}中扫描, 不占用名字, 再按分组顺序用{@link #take}依次占用,
+ * 这样生成的名字只和分组顺序有关, 和线程调度无关
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Primary
+@Component
+public class ApiOperationNameGenerator implements OperationNameGenerator {
+    private static final Pattern SUFFIX = Pattern.compile("^(.*)_(\\d{1,9})$");
+
+    /**
+     * 每个前缀已经占用的序号, 0表示不带后缀的前缀本身
+     */
+    private final Map<String, BitSet> generated = newHashMap();
+    private final ThreadLocal<Session> session = new ThreadLocal<>();
+
+    @Override
+    public String startingWith(String prefix) {
+        Session current = session.get();
+        return isNull(current) ? take(prefix) : current.next(prefix);
+    }
+
+    /**
+     * 在当前线程执行扫描并记录请求名字的顺序, 扫描期间不占用名字,
+     * 文档中的名字是假设没有其它分组同时扫描时会得到的名字
+     */
+    public <T> Recording<T> record(Supplier<T> scan) {
+        Recording<T> recording = new Recording<>();
+        session.set(recording);
+        try {
+            recording.result = scan.get();
+            return recording;
+        } finally {
+            session.remove();
+        }
+    }
+
+    /**
+     * 按顺序占用名字, 结果与依次调用{@link #startingWith}相同
+     */
+    public synchronized List<String> take(List<String> prefixes) {
+        List<String> names = newArrayList();
+        prefixes.forEach(prefix -> names.add(take(prefix)));
+        return names;
+    }
+
+    /**
+     * 重新执行记录过的扫描, 按顺序返回已经占用的名字
+     */
+    public <T> T replay(List<String> prefixes, List<String> names, Supplier<T> scan) {
+        Replay replay = new Replay(prefixes, names);
+        session.set(replay);
+        try {
+            T result = scan.get();
+            if (replay.prefixes.hasNext()) {
+                throw new SwaggerMoreException("重新扫描文档时请求的名字比记录的少");
+            }
+            return result;
+        } finally {
+            session.remove();
+        }
+    }
+
+    private synchronized String take(String prefix) {
+        int index = lowestFree(prefix, new BitSet());
+        generated.computeIfAbsent(prefix, key -> new BitSet()).set(index);
+        String name = nameOf(prefix, index);
+        if (index > 0) {
+            log.info("Generating unique operation named: {}", name);
+        }
+        return name;
+    }
+
+    /**
+     * 除了已经占用的序号, 还要跳过requested中的序号, 返回最小的空闲序号
+     */
+    private synchronized int lowestFree(String prefix, BitSet requested) {
+        BitSet taken = (BitSet) requested.clone();
+        BitSet generatedIndexes = generated.get(prefix);
+        if (nonNull(generatedIndexes)) {
+            taken.or(generatedIndexes);
+        }
+        return taken.nextClearBit(0);
+    }
+
+    private static String nameOf(String prefix, int index) {
+        return index == 0 ? prefix : String.format("%s_%s", prefix, index);
+    }
+
+    /**
+     * 只归还这个名字本身, 后续生成时优先使用最小的空闲序号
+     */
+    public synchronized void release(String operationName) {
+        String prefix = operationName;
+        int index = 0;
+        if (!isTaken(prefix, index)) {
+            Matcher matcher = SUFFIX.matcher(operationName);
+            if (!matcher.matches() || !isTaken(matcher.group(1), Integer.parseInt(matcher.group(2)))) {
+                return;
+            }
+            prefix = matcher.group(1);
+            index = Integer.parseInt(matcher.group(2));
+        }
+        BitSet indexes = generated.get(prefix);
+        indexes.clear(index);
+        if (indexes.isEmpty()) {
+            generated.remove(prefix);
+        }
+    }
+
+    private boolean isTaken(String prefix, int index) {
+        BitSet indexes = generated.get(prefix);
+        return nonNull(indexes) && indexes.get(index);
+    }
+
+    private interface Session {
+        String next(String prefix);
+    }
+
+    public class Recording<T> implements Session {
+        private final Map<String, BitSet> requested = newHashMap();
+        private final List<String> prefixes = newArrayList();
+        private final List<String> names = newArrayList();
+        private T result;
+
+        @Override
+        public String next(String prefix) {
+            BitSet requestedIndexes = requested.computeIfAbsent(prefix, key -> new BitSet());
+            int index = lowestFree(prefix, requestedIndexes);
+            requestedIndexes.set(index);
+            String name = nameOf(prefix, index);
+            prefixes.add(prefix);
+            names.add(name);
+            return name;
+        }
+
+        public T result() {
+            return result;
+        }
+
+        public List<String> prefixes() {
+            return prefixes;
+        }
+
+        public List<String> names() {
+            return names;
+        }
+    }
+
+    private static class Replay implements Session {
+        private final Iterator<String> prefixes;
+        private final Iterator<String> names;
+
+        private Replay(List<String> prefixes, List<String> names) {
+            this.prefixes = prefixes.iterator();
+            this.names = names.iterator();
+        }
+
+        @Override
+        public String next(String prefix) {
+            if (!prefixes.hasNext() || !prefixes.next().equals(prefix)) {
+                throw new SwaggerMoreException("重新扫描文档时请求名字的顺序与记录的不一致: " + prefix);
+            }
+            return names.next();
+        }
+    }
+}
@@ -20,9 +20,9 @@ package com.github.uhfun.swagger.extension;
 
 import com.fasterxml.classmate.ResolvedType;
 import com.google.common.base.Optional;
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.method.HandlerMethod;
@@ -37,7 +37,9 @@ import springfox.documentation.spring.web.readers.operation.HandlerMethodResolve
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -45,48 +47,69 @@ import static java.util.stream.Collectors.joining;
 import static springfox.documentation.spring.web.paths.Paths.splitCamelCase;
 
 /**
+ * 构造时一次性计算名称、路径、分组与 key 等不可变值, 文档构建期间 springfox 会反复读取这些属性
+ *
  * @author uhfun
  */
 @Slf4j
 public class ApiRequestHandler implements RequestHandler {
 
-    private final HandlerMethodResolver methodResolver;
+    private static final Set<RequestMethod> SUPPORTED_METHODS = ImmutableSet.of(RequestMethod.POST);
+    private static final Set<MediaType> PRODUCES = ImmutableSet.of(MediaType.APPLICATION_JSON_UTF8, MediaType.TEXT_PLAIN);
+    private static final Set<MediaType> CONSUMES = ImmutableSet.of(MediaType.APPLICATION_JSON_UTF8);
+
     private final HandlerMethod handlerMethod;
+    private final Class<?> declaringClass;
     private final List<ResolvedMethodParameter> resolvedMethodParameters;
+    private final String name;
+    private final String groupName;
+    private final PatternsRequestCondition patternsCondition;
+    private final RequestHandlerKey key;
+    private final ResolvedType returnType;
+    private final int hashCode;
 
     ApiRequestHandler(HandlerMethodResolver methodResolver,
                       HandlerMethod handlerMethod,
                       List<ResolvedMethodParameter> resolvedMethodParameters) {
-        this.methodResolver = methodResolver;
+        Method method = handlerMethod.getMethod();
         this.handlerMethod = handlerMethod;
-        this.resolvedMethodParameters = resolvedMethodParameters;
+        // 运行时暴露的服务以jdk代理作为引用, 文档中使用服务接口
+        this.declaringClass = Proxy.isProxyClass(handlerMethod.getBeanType()) ? method.getDeclaringClass() : handlerMethod.getBeanType();
+        this.resolvedMethodParameters = ImmutableList.copyOf(resolvedMethodParameters);
+        this.name = nameOf(method);
+        this.groupName = groupNameOf(handlerMethod.getBeanType());
+        this.patternsCondition = new PatternsRequestCondition(pathOf(method, name));
+        this.key = new RequestHandlerKey(patternsCondition.getPatterns(), SUPPORTED_METHODS, CONSUMES, PRODUCES);
+        this.returnType = methodResolver.methodReturnType(handlerMethod);
+        this.hashCode = Objects.hash(method, key);
     }
 
     @Override
     public Class<?> declaringClass() {
-        return handlerMethod.getBeanType();
+        return declaringClass;
     }
 
     @Override
     public boolean isAnnotatedWith(Class<? extends Annotation> annotation) {
-        return null != AnnotationUtils.findAnnotation(handlerMethod.getMethod(), annotation);
+        return null != ApiMetadataIndex.findAnnotation(handlerMethod.getMethod(), annotation);
     }
 
-    @Override
-    public PatternsRequestCondition getPatternsCondition() {
-        String key = "/" + handlerMethod.getMethod().getDeclaringClass().getSimpleName().replace("Impl", "") + "/" + getName();
-        return new PatternsRequestCondition(key);
+    public static String pathOf(Method method) {
+        return pathOf(method, nameOf(method));
     }
 
-    @Override
-    public String groupName() {
-        Class<?> apiClass = handlerMethod.getBeanType();
-        return splitCamelCase(apiClass.getInterfaces()[0].getSimpleName(), "-").replace("/", "").toLowerCase();
+    private static String pathOf(Method method, String name) {
+        return "/" + serviceSegmentOf(method.getDeclaringClass()) + "/" + name;
     }
 
-    @Override
-    public String getName() {
-        Method method = handlerMethod.getMethod();
+    /**
+     * 请求路径中代表服务的一段, 即 /dubbo/{classSimpleName}/{methodName} 中的classSimpleName
+     */
+    public static String serviceSegmentOf(Class<?> serviceInterface) {
+        return serviceInterface.getSimpleName().replace("Impl", "");
+    }
+
+    public static String nameOf(Method method) {
         return Stream.of(method.getDeclaringClass().getDeclaredMethods())
                 .filter(m -> m.getName().equals(method.getName()))
                 .count() == 1
@@ -96,39 +119,58 @@ public class ApiRequestHandler implements RequestHandler {
                 .map(Class::getSimpleName).collect(joining(", ")) + ")";
     }
 
+    @Override
+    public PatternsRequestCondition getPatternsCondition() {
+        return patternsCondition;
+    }
+
+    @Override
+    public String groupName() {
+        return groupName;
+    }
+
+    public static String groupNameOf(Class<?> beanType) {
+        return splitCamelCase(beanType.getInterfaces()[0].getSimpleName(), "-").replace("/", "").toLowerCase();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
     @Override
     public Set<RequestMethod> supportedMethods() {
-        return Sets.newHashSet(RequestMethod.POST);
+        return SUPPORTED_METHODS;
     }
 
     @Override
     public Set<? extends MediaType> produces() {
-        return Sets.newHashSet(MediaType.APPLICATION_JSON_UTF8, MediaType.TEXT_PLAIN);
+        return PRODUCES;
     }
 
     @Override
     public Set<? extends MediaType> consumes() {
-        return Sets.newHashSet(MediaType.APPLICATION_JSON_UTF8);
+        return CONSUMES;
     }
 
     @Override
     public Set<NameValueExpression<String>> headers() {
-        return Sets.newHashSet();
+        return ImmutableSet.of();
     }
 
     @Override
     public Set<NameValueExpression<String>> params() {
-        return Sets.newHashSet();
+        return ImmutableSet.of();
     }
 
     @Override
     public <T extends Annotation> Optional<T> findAnnotation(Class<T> annotation) {
-        return Optional.fromNullable(AnnotationUtils.findAnnotation(handlerMethod.getMethod(), annotation));
+        return Optional.fromNullable(ApiMetadataIndex.findAnnotation(handlerMethod.getMethod(), annotation));
     }
 
     @Override
     public RequestHandlerKey key() {
-        return new RequestHandlerKey(getPatternsCondition().getPatterns(), supportedMethods(), consumes(), produces());
+        return key;
     }
 
     @Override
@@ -138,12 +180,12 @@ public class ApiRequestHandler implements RequestHandler {
 
     @Override
     public ResolvedType getReturnType() {
-        return methodResolver.methodReturnType(handlerMethod);
+        return returnType;
     }
 
     @Override
     public <T extends Annotation> Optional<T> findControllerAnnotation(Class<T> annotation) {
-        return Optional.fromNullable(AnnotationUtils.findAnnotation(handlerMethod.getBeanType(), annotation));
+        return Optional.fromNullable(ApiMetadataIndex.findAnnotation(handlerMethod.getBeanType(), annotation));
     }
 
     @Override
@@ -161,10 +203,29 @@ public class ApiRequestHandler implements RequestHandler {
         return other;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ApiRequestHandler)) {
+            return false;
+        }
+        ApiRequestHandler that = (ApiRequestHandler) o;
+        return hashCode == that.hashCode
+                && handlerMethod.getMethod().equals(that.handlerMethod.getMethod())
+                && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer("ApiRequestHandler{");
-        sb.append("key=").append(key());
+        sb.append("key=").append(key);
         sb.append('}');
         return sb.toString();
     }
@@ -18,10 +18,12 @@
  */
 package com.github.uhfun.swagger.extension;
 
+import com.alibaba.dubbo.config.ServiceConfig;
 import com.alibaba.dubbo.config.spring.ServiceBean;
 import com.fasterxml.classmate.TypeResolver;
 import com.github.uhfun.swagger.annotations.ApiMethod;
 import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
 import com.github.uhfun.swagger.util.ClassUtils;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiParam;
@@ -29,7 +31,6 @@ import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
-import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -46,8 +47,10 @@ import java.lang.annotation.Target;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -57,7 +60,11 @@ import static com.github.uhfun.swagger.util.TypeUtils.isComplexObjectType;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.util.ClassUtils.getUserClass;
 import static springfox.documentation.builders.BuilderDefaults.nullToEmptyList;
 import static springfox.documentation.spi.service.contexts.Orderings.byPatternsCondition;
 
@@ -71,35 +78,71 @@ public class ApiRequestHandlerProvider implements RequestHandlerProvider {
     private final List<ServiceBean> serviceBeans;
     private final HandlerMethodResolver methodResolver;
     private final TypeResolver typeResolver;
+    private final SwaggerMoreProperties properties;
 
     @Autowired
     public ApiRequestHandlerProvider(List<ServiceBean> serviceBeans,
                                      HandlerMethodResolver methodResolver,
-                                     TypeResolver typeResolver) {
+                                     TypeResolver typeResolver,
+                                     SwaggerMoreProperties properties) {
         this.serviceBeans = serviceBeans;
         this.methodResolver = methodResolver;
         this.typeResolver = typeResolver;
+        this.properties = properties;
     }
 
     @Override
     public List<RequestHandler> requestHandlers() {
-        return byPatternsCondition().sortedCopy(nullToEmptyList(serviceBeans).stream()
-                .filter(bean -> AnnotatedElementUtils.hasAnnotation(bean.getInterfaceClass(), Api.class))
-                .reduce(newArrayList(), toMappingEntries(), (o1, o2) -> o1)
-                .stream().map(toRequestHandler()).collect(Collectors.toList()));
+        // 懒加载、并行扫描和增量更新时springfox启动扫描得到的是空文档, 由LazyApiDocumentation、ParallelApiDocumentation和IncrementalApiDocumentation按分组生成
+        return properties.docsLazy() || properties.docsParallel() || properties.docsIncremental()
+                ? newArrayList() : requestHandlers(nullToEmptyList(serviceBeans));
     }
 
-    private BiFunction<List<HandlerMethod>, ? super ServiceBean,
-            List<HandlerMethod>> toMappingEntries() {
-        return (list, bean) -> {
-            Object object = AopUtils.isAopProxy(bean.getRef())
-                    ? AopProxyUtils.getSingletonTarget(bean.getRef()) : bean.getRef();
-            list.addAll(Arrays.stream(bean.getInterfaceClass().getDeclaredMethods())
-                    .filter(method -> !Modifier.isStatic(method.getModifiers()))
-                    .filter(method -> AnnotatedElementUtils.hasAnnotation(method, ApiMethod.class))
-                    .map(method -> new HandlerMethod(object, method))
-                    .collect(Collectors.toList()));
-            return list;
+    public List<RequestHandler> requestHandlers(Collection<? extends ServiceConfig> beans) {
+        return byPatternsCondition().sortedCopy(beans.stream()
+                .filter(this::isDocumented)
+                .flatMap(toHandlerMethods())
+                .map(toRequestHandler()).collect(Collectors.toList()));
+    }
+
+    /**
+     * 按ApiRequestHandler.groupName()的规则对服务分组, 不生成任何handler
+     */
+    public SortedMap<String, List<ServiceConfig>> serviceBeansByGroup() {
+        return nullToEmptyList(serviceBeans).stream()
+                .filter(this::isDocumented)
+                .collect(groupingBy(this::groupNameOf, TreeMap::new, mapping(ServiceConfig.class::cast, toList())));
+    }
+
+    public boolean isDocumented(ServiceConfig bean) {
+        return isDocumented(bean.getInterfaceClass());
+    }
+
+    /**
+     * 生成文档的接口和方法, ApiInvocationRegistry只为这些方法登记调用计划
+     */
+    public static boolean isDocumented(Class<?> interfaceClass) {
+        return ApiMetadataIndex.hasAnnotation(interfaceClass, Api.class);
+    }
+
+    public static boolean isDocumented(Method method) {
+        return !Modifier.isStatic(method.getModifiers()) && ApiMetadataIndex.hasAnnotation(method, ApiMethod.class);
+    }
+
+    public String groupNameOf(ServiceConfig bean) {
+        return ApiRequestHandler.groupNameOf(getUserClass(targetOf(bean)));
+    }
+
+    private Object targetOf(ServiceConfig bean) {
+        return AopUtils.isAopProxy(bean.getRef()) ? AopProxyUtils.getSingletonTarget(bean.getRef()) : bean.getRef();
+    }
+
+    private Function<ServiceConfig, Stream<HandlerMethod>> toHandlerMethods() {
+        return bean -> {
+            Object object = targetOf(bean);
+            return Arrays.stream(bean.getInterfaceClass().getDeclaredMethods())
+                    .filter(ApiRequestHandlerProvider::isDocumented)
+                    .map(method -> new HandlerMethod(object, method));
         };
     }
 
@@ -125,7 +168,7 @@ public class ApiRequestHandlerProvider implements RequestHandlerProvider {
     }
 
     private Class<?> mergeIntoGeneratedType(List<Class> parameters, Method method) {
-        ApiMethod apiMethod = AnnotationUtils.findAnnotation(method, ApiMethod.class);
+        ApiMethod apiMethod = ApiMetadataIndex.findAnnotation(method, ApiMethod.class);
         if (isNull(apiMethod)) {
             throw new SwaggerMoreException("Method " + method.getDeclaringClass().getName() + "." + method.getName() + "has more than two complex parameters that must be annotated @ApiMethod with @ApiParam");
         }
@@ -140,7 +183,7 @@ public class ApiRequestHandlerProvider implements RequestHandlerProvider {
             names.add(param.name());
             values.add(param.value());
         }
-        return ClassUtils.make(className, method.getParameterTypes(), names, values);
+        return ClassUtils.make(method.getDeclaringClass().getClassLoader(), className, method.getParameterTypes(), names, values);
     }
 
     private boolean allAsRequestBody(HandlerMethod handlerMethod) {
@@ -0,0 +1,215 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.alibaba.dubbo.rpc.Exporter;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.proxy.jdk.JdkProxyFactory;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.invoke.ApiInvocationRegistry;
+import com.github.uhfun.swagger.web.ApiDocsSnapshots;
+import io.swagger.annotations.Api;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import springfox.documentation.service.Documentation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.github.uhfun.swagger.common.Constant.DUBBO_GROUP_NAME;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 增量更新模式: 文档按接口分组扫描后合并成dubbo分组的文档.
+ * dubbo服务运行时暴露或取消暴露时(见{@link ApiExporterListener}), 只重新扫描受影响的分组再合并,
+ * 同时更新调用计划和文档快照; 懒加载模式下只重新登记分组, 文档在下次访问时生成
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class IncrementalApiDocumentation implements SmartInitializingSingleton, ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+
+    private static final JdkProxyFactory PROXY_FACTORY = new JdkProxyFactory();
+
+    private final ApiRequestHandlerProvider handlerProvider;
+    private final ApiDocumentationBuilder documentationBuilder;
+    private final SynchronizedDocumentationCache documentationCache;
+    private final ParallelApiDocumentation parallelDocumentation;
+    private final LazyApiDocumentation lazyDocumentation;
+    private final ApiInvocationRegistry invocationRegistry;
+    private final ApiDocsSnapshots snapshots;
+    private final SwaggerMoreProperties properties;
+    /**
+     * 同一个服务会暴露在injvm、dubbo等多个协议上, 按serviceKey计数, 全部取消暴露后才移除
+     */
+    private final Map<String, Integer> exporters = newHashMap();
+    private final Map<String, List<ServiceConfig>> groups = new TreeMap<>();
+    private final Map<String, Documentation> parts = new TreeMap<>();
+    private boolean initialized;
+    private boolean destroyed;
+
+    @Autowired
+    public IncrementalApiDocumentation(ApiRequestHandlerProvider handlerProvider,
+                                       ApiDocumentationBuilder documentationBuilder,
+                                       SynchronizedDocumentationCache documentationCache,
+                                       ParallelApiDocumentation parallelDocumentation,
+                                       LazyApiDocumentation lazyDocumentation,
+                                       ApiInvocationRegistry invocationRegistry,
+                                       ApiDocsSnapshots snapshots,
+                                       SwaggerMoreProperties properties) {
+        this.handlerProvider = handlerProvider;
+        this.documentationBuilder = documentationBuilder;
+        this.documentationCache = documentationCache;
+        this.parallelDocumentation = parallelDocumentation;
+        this.lazyDocumentation = lazyDocumentation;
+        this.invocationRegistry = invocationRegistry;
+        this.snapshots = snapshots;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        if (properties.docsIncremental()) {
+            groups.putAll(handlerProvider.serviceBeansByGroup());
+        }
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!properties.docsIncremental() || properties.docsLazy() || initialized) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<String> names = newArrayList(groups.keySet());
+        List<Documentation> scanned = properties.docsParallel()
+                ? parallelDocumentation.scan(groups.values())
+                : groups.values().stream().map(this::scan).collect(toList());
+        for (int i = 0; i < names.size(); i++) {
+            parts.put(names.get(i), scanned.get(i));
+        }
+        publish();
+        initialized = true;
+        log.info("[swagger-more] 按分组扫描文档: {}个分组, 耗时: {}ms", groups.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        destroyed = true;
+    }
+
+    /**
+     * 服务的引用为exporter上invoker的jdk代理, 调用经过服务端的filter链, 和dubbo调用一致.
+     * 代理只实现服务接口, 分组名和ServiceBean暴露时相同
+     */
+    public synchronized void exported(Exporter<?> exporter) {
+        Invoker<?> invoker = exporter.getInvoker();
+        if (!accepts(invoker) || exporters.merge(invoker.getUrl().getServiceKey(), 1, Integer::sum) > 1) {
+            return;
+        }
+        ServiceConfig<Object> config = new ServiceConfig<>();
+        config.setInterface(invoker.getInterface());
+        config.setRef(PROXY_FACTORY.getProxy(invoker, new Class<?>[]{invoker.getInterface()}));
+        String group = handlerProvider.groupNameOf(config);
+        List<ServiceConfig> beans = groups.getOrDefault(group, newArrayList());
+        if (beans.stream().anyMatch(bean -> bean.getInterfaceClass() == invoker.getInterface())) {
+            // 启动时已经登记的服务
+            return;
+        }
+        List<ServiceConfig> updated = newArrayList(beans);
+        updated.add(config);
+        invocationRegistry.register(config);
+        refresh(group, updated);
+    }
+
+    public synchronized void unexported(Exporter<?> exporter) {
+        Invoker<?> invoker = exporter.getInvoker();
+        if (!accepts(invoker)) {
+            return;
+        }
+        Integer count = exporters.remove(invoker.getUrl().getServiceKey());
+        if (count != null && count > 1) {
+            exporters.put(invoker.getUrl().getServiceKey(), count - 1);
+            return;
+        }
+        groups.entrySet().stream()
+                .filter(entry -> entry.getValue().stream().anyMatch(bean -> bean.getInterfaceClass() == invoker.getInterface()))
+                .findFirst()
+                .ifPresent(entry -> {
+                    List<ServiceConfig> updated = entry.getValue().stream()
+                            .filter(bean -> bean.getInterfaceClass() != invoker.getInterface())
+                            .collect(toList());
+                    invocationRegistry.unregister(invoker.getInterface());
+                    refresh(entry.getKey(), updated);
+                });
+    }
+
+    private boolean accepts(Invoker<?> invoker) {
+        return properties.docsIncremental() && !destroyed && ApiMetadataIndex.hasAnnotation(invoker.getInterface(), Api.class);
+    }
+
+    /**
+     * 只重新扫描变化的分组, 其余分组的文档直接参与合并
+     */
+    private void refresh(String group, List<ServiceConfig> beans) {
+        if (beans.isEmpty()) {
+            groups.remove(group);
+        } else {
+            groups.put(group, beans);
+        }
+        long start = System.currentTimeMillis();
+        if (properties.docsLazy()) {
+            lazyDocumentation.refresh(group, beans);
+        } else if (initialized) {
+            Documentation previous = parts.remove(group);
+            if (previous != null) {
+                documentationBuilder.release(previous);
+            }
+            if (!beans.isEmpty()) {
+                parts.put(group, scan(beans));
+            }
+            publish();
+        } else {
+            // 启动扫描还未进行, 扫描时会包含该分组
+            return;
+        }
+        snapshots.evict(group);
+        snapshots.evict(DUBBO_GROUP_NAME);
+        log.info("[swagger-more] 增量更新分组文档: {}, {}个服务, 耗时: {}ms", group, beans.size(), System.currentTimeMillis() - start);
+    }
+
+    private Documentation scan(List<ServiceConfig> beans) {
+        return documentationBuilder.scan(documentationBuilder.dubboDocket(), handlerProvider.requestHandlers(beans));
+    }
+
+    private void publish() {
+        documentationCache.addDocumentation(parts.isEmpty()
+                ? scan(newArrayList())
+                : documentationBuilder.merge(DUBBO_GROUP_NAME, newArrayList(parts.values())));
+    }
+}
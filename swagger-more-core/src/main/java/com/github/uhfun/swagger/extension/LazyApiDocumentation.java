@@ -0,0 +1,155 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import springfox.documentation.service.Documentation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.github.uhfun.swagger.common.Constant.DUBBO_GROUP_NAME;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Objects.isNull;
+
+/**
+ * 懒加载模式下的文档: 启动时只登记接口分组, 第一次访问某个分组时才扫描, 访问dubbo分组时合并所有分组
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class LazyApiDocumentation implements SmartInitializingSingleton {
+
+    private final ApiRequestHandlerProvider handlerProvider;
+    private final ApiDocumentationBuilder documentationBuilder;
+    private final SynchronizedDocumentationCache documentationCache;
+    private final SwaggerMoreProperties properties;
+    private final ParallelApiDocumentation parallelDocumentation;
+    private final Map<String, Documentation> scanned = newHashMap();
+    private volatile Map<String, List<ServiceConfig>> groups = Collections.emptyMap();
+    private volatile boolean merged;
+
+    @Autowired
+    public LazyApiDocumentation(ApiRequestHandlerProvider handlerProvider,
+                                ApiDocumentationBuilder documentationBuilder,
+                                SynchronizedDocumentationCache documentationCache,
+                                SwaggerMoreProperties properties,
+                                ParallelApiDocumentation parallelDocumentation) {
+        this.handlerProvider = handlerProvider;
+        this.documentationBuilder = documentationBuilder;
+        this.documentationCache = documentationCache;
+        this.properties = properties;
+        this.parallelDocumentation = parallelDocumentation;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.docsLazy()) {
+            groups = handlerProvider.serviceBeansByGroup();
+            log.info("[swagger-more] 懒加载文档, 登记分组: {}", groups.keySet());
+        }
+    }
+
+    public Set<String> groupNames() {
+        return groups.keySet();
+    }
+
+    /**
+     * 保证分组的文档已经生成并放入DocumentationCache, 未登记的分组直接忽略
+     */
+    public void ensure(String group) {
+        if (DUBBO_GROUP_NAME.equals(group)) {
+            if (!merged) {
+                ensureMerged();
+            }
+        } else if (groups.containsKey(group) && isNull(documentationCache.documentationByGroup(group))) {
+            ensureGroup(group);
+        }
+    }
+
+    private synchronized void ensureGroup(String group) {
+        if (scanned.containsKey(group)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Documentation documentation = documentationBuilder.scan(documentationBuilder.dubboDocket(), handlerProvider.requestHandlers(groups.get(group)));
+        addGroup(group, documentation);
+        log.info("[swagger-more] 生成分组文档: {}, 耗时: {}ms", group, System.currentTimeMillis() - start);
+    }
+
+    private void addGroup(String group, Documentation documentation) {
+        scanned.put(group, documentation);
+        documentationCache.addDocumentation(documentationBuilder.rename(group, documentation));
+    }
+
+    /**
+     * 服务上下线时替换分组登记的服务, beans为空时移除分组.
+     * 只丢弃该分组已生成的文档, 分组文档和合并文档在下次访问时重新生成
+     */
+    public synchronized void refresh(String group, List<ServiceConfig> beans) {
+        Map<String, List<ServiceConfig>> updated = new TreeMap<>(groups);
+        if (beans.isEmpty()) {
+            updated.remove(group);
+        } else {
+            updated.put(group, beans);
+        }
+        groups = updated;
+        Documentation documentation = scanned.remove(group);
+        if (documentation != null) {
+            documentationBuilder.release(documentation);
+        }
+        documentationCache.removeDocumentation(group);
+        merged = false;
+    }
+
+    private synchronized void ensureMerged() {
+        if (merged) {
+            return;
+        }
+        if (properties.docsParallel()) {
+            Map<String, List<ServiceConfig>> remaining = new TreeMap<>(groups);
+            remaining.keySet().removeAll(scanned.keySet());
+            List<Documentation> parts = parallelDocumentation.scan(remaining.values());
+            int i = 0;
+            for (String group : remaining.keySet()) {
+                addGroup(group, parts.get(i++));
+            }
+        } else {
+            groups.keySet().forEach(this::ensureGroup);
+        }
+        if (!scanned.isEmpty()) {
+            List<Documentation> parts = newArrayList();
+            groups.keySet().forEach(group -> parts.add(scanned.get(group)));
+            documentationCache.addDocumentation(documentationBuilder.merge(DUBBO_GROUP_NAME, parts));
+        } else {
+            documentationCache.addDocumentation(documentationBuilder.scan(documentationBuilder.dubboDocket(), newArrayList()));
+        }
+        merged = true;
+    }
+}
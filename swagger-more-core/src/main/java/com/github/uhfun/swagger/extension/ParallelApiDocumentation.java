@@ -0,0 +1,162 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.extension.ApiOperationNameGenerator.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import springfox.documentation.service.Documentation;
+import springfox.documentation.spring.web.DocumentationCache;
+import springfox.documentation.spring.web.json.JsonSerializer;
+import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger2.mappers.ServiceModelToSwagger2Mapper;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.uhfun.swagger.common.Constant.DUBBO_GROUP_NAME;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 并行扫描模式: 每个接口分组在ForkJoinPool中独立扫描, 再按分组名顺序合并成dubbo分组的文档.
+ * springfox启动扫描得到的是空文档, 在ContextRefreshedEvent时替换.
+ * 扫描时不占用operation的名字, 扫描完成后按分组顺序统一占用, 结果与并行度无关
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class ParallelApiDocumentation implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final ApiRequestHandlerProvider handlerProvider;
+    private final ApiDocumentationBuilder documentationBuilder;
+    private final ApiOperationNameGenerator nameGenerator;
+    private final DocumentationCache documentationCache;
+    private final ServiceModelToSwagger2Mapper mapper;
+    private final JsonSerializer jsonSerializer;
+    private final SwaggerMoreProperties properties;
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+
+    @Autowired
+    public ParallelApiDocumentation(ApiRequestHandlerProvider handlerProvider,
+                                    ApiDocumentationBuilder documentationBuilder,
+                                    ApiOperationNameGenerator nameGenerator,
+                                    DocumentationCache documentationCache,
+                                    ServiceModelToSwagger2Mapper mapper,
+                                    JsonSerializer jsonSerializer,
+                                    SwaggerMoreProperties properties) {
+        this.handlerProvider = handlerProvider;
+        this.documentationBuilder = documentationBuilder;
+        this.nameGenerator = nameGenerator;
+        this.documentationCache = documentationCache;
+        this.mapper = mapper;
+        this.jsonSerializer = jsonSerializer;
+        this.properties = properties;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!properties.docsParallel() || properties.docsLazy() || properties.docsIncremental() || !initialized.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, List<ServiceConfig>> groups = handlerProvider.serviceBeansByGroup();
+        long start = System.currentTimeMillis();
+        Documentation documentation = documentationBuilder.merge(DUBBO_GROUP_NAME, scan(groups.values()));
+        log.info("[swagger-more] 并行扫描文档: {}个分组, 耗时: {}ms", groups.size(), System.currentTimeMillis() - start);
+        if (properties.docsParallelVerify()) {
+            documentation = verify(documentation, groups);
+        }
+        documentationCache.addDocumentation(documentation);
+    }
+
+    /**
+     * 返回的文档与传入的分组一一对应, 顺序相同
+     */
+    public List<Documentation> scan(Collection<List<ServiceConfig>> groups) {
+        return scan(groups, properties.docsParallelism());
+    }
+
+    private List<Documentation> scan(Collection<List<ServiceConfig>> groups, int parallelism) {
+        Docket docket = documentationBuilder.dubboDocket();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Recording<Documentation>> recordings;
+        try {
+            recordings = pool.submit(() -> groups.parallelStream()
+                    .map(beans -> nameGenerator.record(() -> documentationBuilder.scan(docket, handlerProvider.requestHandlers(beans))))
+                    .collect(toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwaggerMoreException("并行扫描文档被中断");
+        } catch (ExecutionException e) {
+            throw new SwaggerMoreException("并行扫描文档失败: " + e.getCause().getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        // 按分组顺序占用名字, 和顺序扫描时springfox按分组名依次生成名字的顺序相同;
+        // 名字与扫描时假设的不同说明有其它分组用了相同的前缀, 这个分组按占用到的名字重新扫描
+        List<Documentation> documentations = newArrayList();
+        Iterator<List<ServiceConfig>> beans = groups.iterator();
+        for (Recording<Documentation> recording : recordings) {
+            List<ServiceConfig> group = beans.next();
+            List<String> names = nameGenerator.take(recording.prefixes());
+            documentations.add(names.equals(recording.names())
+                    ? recording.result()
+                    : nameGenerator.replay(recording.prefixes(), names, () -> documentationBuilder.scan(docket, handlerProvider.requestHandlers(group))));
+        }
+        return documentations;
+    }
+
+    /**
+     * 分别用并行度1和顺序扫描重新生成文档, 序列化结果必须与并行扫描的完全相同
+     */
+    private Documentation verify(Documentation parallel, Map<String, List<ServiceConfig>> groups) {
+        String expected = toJson(parallel);
+        documentationBuilder.release(parallel);
+        Documentation single = documentationBuilder.merge(DUBBO_GROUP_NAME, scan(groups.values(), 1));
+        if (!expected.equals(toJson(single))) {
+            throw new SwaggerMoreException("并行扫描结果与并行度为1时的结果不一致");
+        }
+        documentationBuilder.release(single);
+        long start = System.currentTimeMillis();
+        Documentation sequential = documentationBuilder.scan(documentationBuilder.dubboDocket(),
+                handlerProvider.requestHandlers(groups.values().stream().flatMap(List::stream).collect(toList())));
+        long elapsed = System.currentTimeMillis() - start;
+        if (!expected.equals(toJson(sequential))) {
+            throw new SwaggerMoreException("并行扫描结果与顺序扫描的结果不一致");
+        }
+        log.info("[swagger-more] 并行扫描结果与并行度为1及顺序扫描的结果一致, 顺序扫描耗时: {}ms", elapsed);
+        return sequential;
+    }
+
+    private String toJson(Documentation documentation) {
+        return jsonSerializer.toJson(mapper.mapDocumentation(documentation)).value();
+    }
+}
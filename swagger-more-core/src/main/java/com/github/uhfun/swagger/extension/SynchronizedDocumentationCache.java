@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.extension;
+
+import springfox.documentation.service.Documentation;
+import springfox.documentation.spring.web.DocumentationCache;
+
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableMap.copyOf;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+/**
+ * 文档可能在请求线程中生成(懒加载、服务上下线), DocumentationCache本身不是线程安全的
+ *
+ * @author uhfun
+ */
+public class SynchronizedDocumentationCache extends DocumentationCache {
+
+    @Override
+    public synchronized void addDocumentation(Documentation documentation) {
+        super.addDocumentation(documentation);
+    }
+
+    @Override
+    public synchronized Documentation documentationByGroup(String groupName) {
+        return super.documentationByGroup(groupName);
+    }
+
+    @Override
+    public synchronized Map<String, Documentation> all() {
+        return copyOf(super.all());
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+    }
+
+    /**
+     * DocumentationCache只能整体清空, 移除单个分组时把其余分组重新放回
+     */
+    public synchronized void removeDocumentation(String groupName) {
+        Map<String, Documentation> remaining = newLinkedHashMap(super.all());
+        if (remaining.remove(groupName) != null) {
+            super.clear();
+            remaining.values().forEach(super::addDocumentation);
+        }
+    }
+}
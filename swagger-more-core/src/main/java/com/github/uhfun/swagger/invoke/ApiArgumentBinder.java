@@ -0,0 +1,148 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONScanner;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.uhfun.swagger.common.PayloadTooLargeException;
+
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+import static com.alibaba.fastjson.parser.Feature.OrderedField;
+import static com.alibaba.fastjson.parser.Feature.SupportAutoType;
+import static com.github.uhfun.swagger.util.TypeUtils.isBaseType;
+import static java.util.Objects.isNull;
+
+/**
+ * 单次遍历请求体, 顶层字段直接按参数声明的泛型类型反序列化.
+ * 复杂类型的参数传的是字符串时(如表单转换出的 {"ids":"[1,2]"}), 和原来一样把字符串再按参数类型解析
+ *
+ * @author uhfun
+ */
+public class ApiArgumentBinder {
+
+    public static Object[] bind(ApiInvocationPlan plan, String payload) {
+        try (ArgumentReader reader = new ArgumentReader(payload)) {
+            return bind(plan, reader);
+        }
+    }
+
+    public static Object[] bind(ApiInvocationPlan plan, Reader body) {
+        try (ArgumentReader reader = new ArgumentReader(body)) {
+            return bind(plan, reader);
+        }
+    }
+
+    /**
+     * 请求体在读取中途超过上限时抛出PayloadTooLargeException, 而不是fastjson包装后的JSONException
+     */
+    public static Object[] bind(ApiInvocationPlan plan, ArgumentReader reader) {
+        try {
+            return read(plan, reader);
+        } catch (JSONException e) {
+            PayloadTooLargeException tooLarge = PayloadTooLargeException.causeOf(e);
+            throw isNull(tooLarge) ? e : tooLarge;
+        }
+    }
+
+    private static Object[] read(ApiInvocationPlan plan, ArgumentReader reader) {
+        reader.config(SupportAutoType, true);
+        reader.config(OrderedField, true);
+        Object[] args = new Object[plan.parameterCount()];
+        if (plan.singleComplexParameter()) {
+            args[0] = reader.readObject(plan.parameterType(0));
+            return args;
+        }
+        reader.startObject();
+        while (reader.hasNext()) {
+            Integer index = plan.parameterIndex(reader.readString());
+            if (isNull(index)) {
+                reader.readObject();
+                continue;
+            }
+            Type type = plan.parameterType(index);
+            Object arg = !isPlainType(type) && reader.nextValueIsString()
+                    ? parseEncoded(reader.readString(), type)
+                    : reader.readObject(type);
+            args[index] = "".equals(arg) ? null : arg;
+        }
+        reader.endObject();
+        return args;
+    }
+
+    private static boolean isPlainType(Type type) {
+        return type instanceof Class && (type == String.class || isBaseType((Class) type));
+    }
+
+    private static Object parseEncoded(String arg, Type type) {
+        if (arg.isEmpty()) {
+            return null;
+        }
+        return arg.startsWith("[") || arg.startsWith("{")
+                ? JSON.parseObject(arg, type, SupportAutoType, OrderedField)
+                : TypeUtils.cast(arg, type, ParserConfig.getGlobalInstance());
+    }
+
+    /**
+     * 记住自己的lexer, 读完字段名后可以在不消费的情况下判断字段值是不是字符串
+     */
+    public static final class ArgumentReader extends JSONReader {
+        private final JSONLexer lexer;
+
+        public ArgumentReader(String payload) {
+            this(new JSONScanner(payload));
+        }
+
+        public ArgumentReader(Reader body) {
+            this(new JSONReaderScanner(body));
+        }
+
+        private ArgumentReader(JSONLexer lexer) {
+            super(lexer);
+            this.lexer = lexer;
+        }
+
+        /**
+         * 字段值是null时读掉并返回true, 和nextValueIsString()一样只能在读出字段名之后调用
+         */
+        public boolean skipNull() {
+            lexer.skipWhitespace();
+            if (lexer.getCurrent() != 'n') {
+                return false;
+            }
+            readObject();
+            return true;
+        }
+
+        /**
+         * 只能在readString()读出字段名之后、读字段值之前调用, 此时lexer停在冒号之后
+         */
+        private boolean nextValueIsString() {
+            lexer.skipWhitespace();
+            return lexer.getCurrent() == '"' || lexer.getCurrent() == '\'';
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.github.uhfun.swagger.extension.ApiMetadataIndex;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.swagger.annotations.ApiParam;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+import static com.github.uhfun.swagger.util.TypeUtils.isComplexObjectType;
+import static com.github.uhfun.swagger.util.TypeUtils.isContainerType;
+import static java.util.Objects.nonNull;
+
+/**
+ * 一次调用需要的目标对象、方法和参数信息, 启动时解析好, 调用时直接使用
+ *
+ * @author uhfun
+ */
+public class ApiInvocationPlan {
+    private final String key;
+    private final Class<?> serviceInterface;
+    private final Object target;
+    private final Class<?> targetClass;
+    private final Method method;
+    private final ApiMethodInvoker invoker;
+    private final List<String> parameterNames;
+    private final Map<String, Integer> parameterIndexes;
+    private final Type[] parameterTypes;
+    private final String[] parameterTypeNames;
+    private final boolean[] containerParameters;
+    private final boolean singleComplexParameter;
+    private final boolean voidReturn;
+    private final boolean asyncReturn;
+
+    private ApiInvocationPlan(String key, Class<?> serviceInterface, Object target, Class<?> targetClass, Method method) {
+        this.key = key;
+        this.serviceInterface = serviceInterface;
+        this.target = target;
+        this.targetClass = targetClass;
+        this.method = method;
+        this.invoker = ApiMethodInvoker.of(invocableMethodOf(serviceInterface, method));
+        Parameter[] parameters = method.getParameters();
+        ApiMethod apiMethod = ApiMetadataIndex.findAnnotation(method, ApiMethod.class);
+        Map<String, Integer> indexes = Maps.newLinkedHashMap();
+        if (nonNull(apiMethod) && apiMethod.params().length > 0) {
+            ApiParam[] params = apiMethod.params();
+            for (int i = 0; i < Math.min(params.length, parameters.length); i++) {
+                indexes.put(params[i].name(), i);
+            }
+        } else {
+            for (int i = 0; i < parameters.length; i++) {
+                String name = parameters[i].getName().replace("arg", "param");
+                indexes.put(name, i);
+            }
+        }
+        this.parameterNames = ImmutableList.copyOf(indexes.keySet());
+        this.parameterIndexes = ImmutableMap.copyOf(indexes);
+        this.parameterTypes = new Type[parameters.length];
+        this.parameterTypeNames = new String[parameters.length];
+        this.containerParameters = new boolean[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterTypes[i] = parameters[i].getParameterizedType();
+            parameterTypeNames[i] = parameters[i].getType().getName();
+            containerParameters[i] = isContainerType(parameters[i].getType());
+        }
+        this.singleComplexParameter = parameters.length == 1 && isComplexObjectType(parameters[0].getType());
+        this.voidReturn = method.getReturnType().equals(void.class);
+        this.asyncReturn = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    }
+
+    /**
+     * 优先用接口上的方法生成调用器, 目标对象是JDK代理或AOP代理时同样可以调用
+     */
+    private static Method invocableMethodOf(Class<?> serviceInterface, Method method) {
+        try {
+            return serviceInterface.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return method;
+        }
+    }
+
+    public static ApiInvocationPlan of(String key, Class<?> serviceInterface, Object target, Class<?> targetClass, Method method) {
+        return new ApiInvocationPlan(key, serviceInterface, target, targetClass, method);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Class<?> serviceInterface() {
+        return serviceInterface;
+    }
+
+    public Object target() {
+        return target;
+    }
+
+    public Class<?> targetClass() {
+        return targetClass;
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    public Object invoke(Object[] args) throws InvocationTargetException, IllegalAccessException {
+        return invoker.invoke(target, args);
+    }
+
+    public int parameterCount() {
+        return parameterTypes.length;
+    }
+
+    public List<String> parameterNames() {
+        return parameterNames;
+    }
+
+    public Integer parameterIndex(String name) {
+        return parameterIndexes.get(name);
+    }
+
+    public Type parameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    public String[] parameterTypeNames() {
+        return parameterTypeNames.clone();
+    }
+
+    public boolean isContainerParameter(String name) {
+        Integer index = parameterIndexes.get(name);
+        return nonNull(index) && containerParameters[index];
+    }
+
+    public boolean singleComplexParameter() {
+        return singleComplexParameter;
+    }
+
+    public boolean voidReturn() {
+        return voidReturn;
+    }
+
+    public boolean asyncReturn() {
+        return asyncReturn;
+    }
+}
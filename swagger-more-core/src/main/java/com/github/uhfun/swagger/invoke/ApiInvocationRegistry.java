@@ -0,0 +1,149 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.alibaba.dubbo.config.spring.ServiceBean;
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.extension.ApiMetadataIndex;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.swagger.annotations.Api;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.pathOf;
+import static com.github.uhfun.swagger.extension.ApiRequestHandler.serviceSegmentOf;
+import static com.github.uhfun.swagger.extension.ApiRequestHandlerProvider.isDocumented;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static springfox.documentation.builders.BuilderDefaults.nullToEmptyList;
+
+/**
+ * 启动时根据dubbo service构建调用计划, 以请求路径为key. 只登记生成了文档且没有隐藏的方法,
+ * 和文档中能看到的接口一致. 服务对象直接取ServiceBean的ref, 按路径中的服务名登记, 不依赖Spring里的bean名称
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class ApiInvocationRegistry implements SmartInitializingSingleton {
+
+    private final List<ServiceBean> serviceBeans;
+    private volatile Map<String, ApiServiceHandle> handles = ImmutableMap.of();
+    private volatile Map<String, ApiInvocationPlan> plans = ImmutableMap.of();
+
+    @Autowired
+    public ApiInvocationRegistry(List<ServiceBean> serviceBeans) {
+        this.serviceBeans = serviceBeans;
+    }
+
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        Map<String, ApiServiceHandle> handleBuilder = Maps.newLinkedHashMap();
+        Map<String, ApiInvocationPlan> builder = Maps.newLinkedHashMap();
+        for (ServiceBean bean : nullToEmptyList(serviceBeans)) {
+            Class<?> interfaceClass = bean.getInterfaceClass();
+            if (isNull(bean.getRef())) {
+                log.warn("[swagger-more] ServiceBean没有ref对象, 跳过 {}", interfaceClass.getName());
+                continue;
+            }
+            ApiServiceHandle handle = ApiServiceHandle.of(interfaceClass, bean.getRef());
+            ApiServiceHandle existing = handleBuilder.putIfAbsent(serviceSegmentOf(interfaceClass), handle);
+            if (nonNull(existing)) {
+                log.warn("[swagger-more] 服务路径 /{} 重复, 忽略 {}, 使用 {}", serviceSegmentOf(interfaceClass),
+                        interfaceClass.getName(), existing.serviceInterface().getName());
+                continue;
+            }
+            addPlans(builder, handle);
+        }
+        handles = ImmutableMap.copyOf(handleBuilder);
+        plans = ImmutableMap.copyOf(builder);
+        log.info("[swagger-more] 构建调用计划 {} 个", plans.size());
+    }
+
+    /**
+     * 运行时暴露的服务, 以写时复制的方式替换调用计划, 读取不加锁
+     */
+    public synchronized void register(ServiceConfig config) {
+        Class<?> interfaceClass = config.getInterfaceClass();
+        ApiServiceHandle handle = ApiServiceHandle.of(interfaceClass, config.getRef());
+        Map<String, ApiServiceHandle> handleBuilder = Maps.newLinkedHashMap(handles);
+        handleBuilder.put(serviceSegmentOf(interfaceClass), handle);
+        Map<String, ApiInvocationPlan> builder = Maps.newLinkedHashMap(plans);
+        builder.values().removeIf(plan -> plan.serviceInterface() == interfaceClass);
+        addPlans(builder, handle);
+        handles = ImmutableMap.copyOf(handleBuilder);
+        plans = ImmutableMap.copyOf(builder);
+        log.info("[swagger-more] 更新调用计划 {}, 共 {} 个", interfaceClass.getName(), plans.size());
+    }
+
+    public synchronized void unregister(Class<?> interfaceClass) {
+        Map<String, ApiServiceHandle> handleBuilder = Maps.newLinkedHashMap(handles);
+        handleBuilder.values().removeIf(handle -> handle.serviceInterface() == interfaceClass);
+        Map<String, ApiInvocationPlan> builder = Maps.newLinkedHashMap(plans);
+        if (builder.values().removeIf(plan -> plan.serviceInterface() == interfaceClass)) {
+            handles = ImmutableMap.copyOf(handleBuilder);
+            plans = ImmutableMap.copyOf(builder);
+            log.info("[swagger-more] 移除调用计划 {}, 剩余 {} 个", interfaceClass.getName(), plans.size());
+        }
+    }
+
+    private static void addPlans(Map<String, ApiInvocationPlan> builder, ApiServiceHandle handle) {
+        Class<?> interfaceClass = handle.serviceInterface();
+        Class<?> targetClass = handle.targetClass();
+        if (!isDocumented(interfaceClass) || ApiMetadataIndex.findAnnotation(interfaceClass, Api.class).hidden()) {
+            return;
+        }
+        for (Method method : interfaceClass.getDeclaredMethods()) {
+            if (!isDocumented(method) || ApiMetadataIndex.findAnnotation(method, ApiMethod.class).hidden()) {
+                continue;
+            }
+            String key = pathOf(method);
+            builder.putIfAbsent(key, ApiInvocationPlan.of(key, interfaceClass, handle.ref(), targetClass, AopUtils.getMostSpecificMethod(method, targetClass)));
+        }
+    }
+
+    /**
+     * 按请求路径中的服务名取服务对象
+     */
+    public ApiServiceHandle handle(String classSimpleName) {
+        ApiServiceHandle handle = handles.get(classSimpleName);
+        if (isNull(handle)) {
+            throw new SwaggerMoreException("找不到服务: " + classSimpleName);
+        }
+        return handle;
+    }
+
+    public ApiInvocationPlan get(String classSimpleName, String methodName) {
+        ApiInvocationPlan plan = plans.get("/" + classSimpleName + "/" + methodName);
+        if (isNull(plan)) {
+            throw new SwaggerMoreException("找不到方法: " + classSimpleName + "." + methodName);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 执行阻塞调用的有界线程池, 队列满时直接拒绝并计数
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class ApiInvokeExecutor implements Executor, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public ApiInvokeExecutor(SwaggerMoreProperties properties) {
+        this.executor = new ThreadPoolExecutor(properties.invokeThreads(), properties.invokeThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.invokeQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("swagger-more-invoke-%d").setDaemon(true).build(),
+                (r, e) -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("调用线程池已满, 排队数: " + e.getQueue().size());
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = Maps.newLinkedHashMap();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("maximumPoolSize", executor.getMaximumPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("completedTaskCount", executor.getCompletedTaskCount());
+        stats.put("rejectedCount", rejected.get());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
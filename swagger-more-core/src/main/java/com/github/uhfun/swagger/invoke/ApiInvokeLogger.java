@@ -0,0 +1,166 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * 调用日志: 请求线程采样后在调用前按长度上限渲染入参的JSON, 把渲染好的记录放进有界队列由后台线程写出, 队列满时丢弃并计数.
+ * 队列中不保留入参对象, 调用过程中对入参的修改不会影响日志, 也不会延长入参的生命周期
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class ApiInvokeLogger implements DisposableBean {
+
+    private final String idPrefix = Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicLong sequence = new AtomicLong();
+    private final double sampleRate;
+    private final int maxArgsLength;
+    private final BlockingQueue<Record> buffer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+
+    @Autowired
+    public ApiInvokeLogger(SwaggerMoreProperties properties) {
+        this.sampleRate = properties.invokeLogSampleRate();
+        this.maxArgsLength = Math.max(properties.invokeLogMaxArgsLength(), 16);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(properties.invokeLogBufferSize(), 1));
+        this.writer = new Thread(this::drain, "swagger-more-invoke-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 启动时间加自增序号, 同一进程内单调递增
+     */
+    public String nextId() {
+        return idPrefix + sequence.incrementAndGet();
+    }
+
+    /**
+     * 必须在调用之前执行, 入参在当前线程渲染
+     */
+    public void log(String invokeId, String remoteAddr, ApiInvocationPlan plan, Object[] args) {
+        if (!log.isInfoEnabled() || !sampled()) {
+            return;
+        }
+        if (!buffer.offer(new Record(invokeId, remoteAddr, plan, render(args)))) {
+            dropped.increment();
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                write(buffer.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Record record;
+        while ((record = buffer.poll()) != null) {
+            write(record);
+        }
+    }
+
+    private void write(Record record) {
+        try {
+            log.info("[swagger-more] 调用({}): ip: {}, invoke -> {}.{}, 入参: {}", record.invokeId, record.remoteAddr,
+                    record.plan.targetClass(), record.plan.method().getName(), record.args);
+            written.increment();
+        } catch (RuntimeException e) {
+            log.warn("[swagger-more] 写出调用日志失败: {}", record.invokeId, e);
+        }
+    }
+
+    /**
+     * 写到上限时fastjson抛出异常, 保留已写出的部分
+     */
+    private String render(Object[] args) {
+        if (isNull(args)) {
+            return "[]";
+        }
+        SerializeWriter out = new SerializeWriter(Math.min(maxArgsLength, 256));
+        try {
+            out.setMaxBufSize(maxArgsLength);
+            new JSONSerializer(out).write(args);
+            return out.toString();
+        } catch (JSONException e) {
+            return out.toString() + "...(超过" + maxArgsLength + "个字符, 已截断)";
+        } catch (RuntimeException e) {
+            return "(入参渲染失败: " + e.getMessage() + ")";
+        } finally {
+            out.close();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = Maps.newLinkedHashMap();
+        stats.put("sampleRate", sampleRate);
+        stats.put("bufferSize", buffer.size());
+        stats.put("bufferRemainingCapacity", buffer.remainingCapacity());
+        stats.put("writtenCount", written.sum());
+        stats.put("droppedCount", dropped.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        writer.interrupt();
+        writer.join(1000);
+    }
+
+    private static final class Record {
+        private final String invokeId;
+        private final String remoteAddr;
+        private final ApiInvocationPlan plan;
+        private final String args;
+
+        private Record(String invokeId, String remoteAddr, ApiInvocationPlan plan, String args) {
+            this.invokeId = invokeId;
+            this.remoteAddr = remoteAddr;
+            this.plan = plan;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把调用指标注册到Micrometer, 方法和异常类型第一次出现时再补充注册
+ *
+ * @author uhfun
+ */
+public class ApiInvokeMeterBinder implements MeterBinder, ApiInvokeMetrics.Listener {
+
+    private static final double[] PERCENTILES = {50, 99};
+
+    private final ApiInvokeMetrics invokeMetrics;
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+
+    public ApiInvokeMeterBinder(ApiInvokeMetrics invokeMetrics) {
+        this.invokeMetrics = invokeMetrics;
+        invokeMetrics.addListener(this);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (registries.stream().anyMatch(r -> r == registry)) {
+            return;
+        }
+        registries.add(registry);
+        for (ApiMethodMetrics metrics : invokeMetrics.methods()) {
+            register(registry, metrics);
+        }
+    }
+
+    @Override
+    public void methodAdded(ApiMethodMetrics metrics) {
+        registries.forEach(registry -> register(registry, metrics));
+    }
+
+    @Override
+    public void errorTypeAdded(ApiMethodMetrics metrics, String type) {
+        registries.forEach(registry -> registerError(registry, metrics, type));
+    }
+
+    private void register(MeterRegistry registry, ApiMethodMetrics metrics) {
+        for (ApiMethodMetrics.Phase phase : ApiMethodMetrics.Phase.values()) {
+            LatencyHistogram histogram = metrics.histogram(phase);
+            String phaseName = phase.name().toLowerCase();
+            FunctionTimer.builder("swagger.more.invoke", histogram,
+                    h -> h.snapshot().count(), h -> h.snapshot().sum(), TimeUnit.NANOSECONDS)
+                    .tags("method", metrics.key(), "phase", phaseName)
+                    .register(registry);
+            for (double percentile : PERCENTILES) {
+                TimeGauge.builder("swagger.more.invoke.percentile", histogram, TimeUnit.NANOSECONDS,
+                        h -> h.snapshot().percentile(percentile))
+                        .tags("method", metrics.key(), "phase", phaseName, "percentile", String.valueOf(percentile / 100))
+                        .register(registry);
+            }
+        }
+        FunctionCounter.builder("swagger.more.invoke.success", metrics, ApiMethodMetrics::successCount)
+                .tags("method", metrics.key())
+                .register(registry);
+        metrics.errorTypes().forEach(type -> registerError(registry, metrics, type));
+    }
+
+    private void registerError(MeterRegistry registry, ApiMethodMetrics metrics, String type) {
+        FunctionCounter.builder("swagger.more.invoke.errors", metrics, m -> m.errorCount(type))
+                .tags("method", metrics.key(), "exception", type)
+                .register(registry);
+    }
+}
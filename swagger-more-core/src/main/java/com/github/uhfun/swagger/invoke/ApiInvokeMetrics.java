@@ -0,0 +1,83 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.google.common.collect.Maps;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * 按方法统计的调用指标, key与ApiInvocationPlan.key()相同, 即ApiRequestHandler.getName()
+ *
+ * @author uhfun
+ */
+@Component
+public class ApiInvokeMetrics {
+
+    private final ConcurrentMap<String, ApiMethodMetrics> methods = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public ApiMethodMetrics of(ApiInvocationPlan plan) {
+        ApiMethodMetrics metrics = methods.get(plan.key());
+        return nonNull(metrics) ? metrics : methods.computeIfAbsent(plan.key(), this::create);
+    }
+
+    private ApiMethodMetrics create(String key) {
+        ApiMethodMetrics metrics = new ApiMethodMetrics(key, this::errorTypeAdded);
+        listeners.forEach(listener -> listener.methodAdded(metrics));
+        return metrics;
+    }
+
+    private void errorTypeAdded(ApiMethodMetrics metrics, String type) {
+        listeners.forEach(listener -> listener.errorTypeAdded(metrics, type));
+    }
+
+    public Collection<ApiMethodMetrics> methods() {
+        return Collections.unmodifiableCollection(methods.values());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = Maps.newTreeMap();
+        methods.forEach((key, metrics) -> stats.put(key, metrics.stats()));
+        return stats;
+    }
+
+    /**
+     * 新方法或新异常类型第一次出现时回调, 用于注册到外部的指标系统
+     */
+    public interface Listener {
+
+        void methodAdded(ApiMethodMetrics metrics);
+
+        void errorTypeAdded(ApiMethodMetrics metrics, String type);
+    }
+}
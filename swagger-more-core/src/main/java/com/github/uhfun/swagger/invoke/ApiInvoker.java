@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * @author uhfun
+ */
+@Component
+public class ApiInvoker {
+
+    private final ApiInvokeExecutor executor;
+    private final GenericServiceInvoker genericInvoker;
+    private final SwaggerMoreProperties properties;
+
+    @Autowired
+    public ApiInvoker(ApiInvokeExecutor executor,
+                      GenericServiceInvoker genericInvoker,
+                      SwaggerMoreProperties properties) {
+        this.executor = executor;
+        this.genericInvoker = genericInvoker;
+        this.properties = properties;
+    }
+
+    /**
+     * 返回CompletionStage的方法最多等待invoke.async.timeout, 超时与异步模式一样抛出AsyncRequestTimeoutException
+     */
+    public Object invoke(ApiInvocationPlan plan, Object[] args) throws InvocationTargetException, IllegalAccessException {
+        if (properties.genericInvoke()) {
+            return genericInvoker.invoke(plan, args);
+        }
+        Object result = plan.invoke(args);
+        if (plan.asyncReturn() && result != null) {
+            CompletableFuture<?> future = ((CompletionStage<?>) result).toCompletableFuture();
+            try {
+                return future.get(properties.asyncTimeout(), MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                throw new AsyncRequestTimeoutException();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InvocationTargetException(e);
+            } catch (ExecutionException e) {
+                throw new InvocationTargetException(unwrap(e.getCause()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回CompletionStage的方法直接在当前线程调用并等待其完成, 其余的放到有界线程池中执行
+     */
+    public CompletableFuture<Object> invokeAsync(ApiInvocationPlan plan, Object[] args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (plan.asyncReturn() && !properties.genericInvoke()) {
+            try {
+                Object result = plan.invoke(args);
+                if (result == null) {
+                    future.complete(null);
+                } else {
+                    ((CompletionStage<?>) result).whenComplete((value, e) -> {
+                        if (e == null) {
+                            future.complete(value);
+                        } else {
+                            future.completeExceptionally(new InvocationTargetException(unwrap(e)));
+                        }
+                    });
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        executor.execute(() -> {
+            try {
+                future.complete(invoke(plan, args));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * 启动时为每个方法生成的调用器. 参数或返回值含基本类型时用MethodHandle展开Object[]参数,
+ * 省去Method.invoke逐个参数的装箱类型判断和访问检查; 只有引用类型时Method.invoke膨胀后的访问器已经是直接调用,
+ * 通用签名的MethodHandle反而更慢, 继续使用反射. 数据见benchmarks模块的MethodInvokerBenchmark.
+ * 异常语义与Method.invoke保持一致: 方法抛出的异常包装成InvocationTargetException, 参数不合法时抛出IllegalArgumentException
+ *
+ * @author uhfun
+ */
+@Slf4j
+public abstract class ApiMethodInvoker {
+
+    private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * Method.invoke对基本类型参数允许的包装类型: 拆箱后再做基本类型的宽化转换
+     */
+    private static final Map<Class<?>, Set<Class<?>>> UNBOXING = ImmutableMap.<Class<?>, Set<Class<?>>>builder()
+            .put(boolean.class, ImmutableSet.of(Boolean.class))
+            .put(char.class, ImmutableSet.of(Character.class))
+            .put(byte.class, ImmutableSet.of(Byte.class))
+            .put(short.class, ImmutableSet.of(Short.class, Byte.class))
+            .put(int.class, ImmutableSet.of(Integer.class, Character.class, Short.class, Byte.class))
+            .put(long.class, ImmutableSet.of(Long.class, Integer.class, Character.class, Short.class, Byte.class))
+            .put(float.class, ImmutableSet.of(Float.class, Long.class, Integer.class, Character.class, Short.class, Byte.class))
+            .put(double.class, ImmutableSet.of(Double.class, Float.class, Long.class, Integer.class, Character.class, Short.class, Byte.class))
+            .build();
+
+    public abstract Object invoke(Object target, Object[] args) throws InvocationTargetException, IllegalAccessException;
+
+    public static ApiMethodInvoker of(Method method) {
+        return hasPrimitive(method) ? methodHandle(method) : reflective(method);
+    }
+
+    private static boolean hasPrimitive(Method method) {
+        if (method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+            return true;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (parameterType.isPrimitive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 无法访问的方法退回到反射调用
+     */
+    public static ApiMethodInvoker methodHandle(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(GENERIC_TYPE);
+            return new MethodHandleInvoker(handle, method.getDeclaringClass(), method.getParameterTypes());
+        } catch (IllegalAccessException e) {
+            log.debug("[swagger-more] 方法无法通过MethodHandle访问, 使用反射调用: {}", method);
+            return new ReflectiveInvoker(method);
+        }
+    }
+
+    public static ApiMethodInvoker reflective(Method method) {
+        return new ReflectiveInvoker(method);
+    }
+
+    private static final class MethodHandleInvoker extends ApiMethodInvoker {
+
+        private final MethodHandle handle;
+        private final Class<?> declaringClass;
+        private final Class<?>[] parameterTypes;
+
+        private MethodHandleInvoker(MethodHandle handle, Class<?> declaringClass, Class<?>[] parameterTypes) {
+            this.handle = handle;
+            this.declaringClass = declaringClass;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+            // 展开参数时的类型转换失败无法与方法内抛出的异常区分, 这里先按Method.invoke的规则检查,
+            // 检查通过后MethodHandle的适配不会再失败, 捕获到的都是方法本身抛出的异常
+            if (!declaringClass.isInstance(target)) {
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+            int length = isNull(args) ? 0 : args.length;
+            if (length != parameterTypes.length) {
+                throw new IllegalArgumentException("wrong number of arguments");
+            }
+            for (int i = 0; i < length; i++) {
+                checkArgument(parameterTypes[i], args[i], i);
+            }
+            try {
+                return handle.invokeExact(target, args);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        private static void checkArgument(Class<?> parameterType, Object arg, int index) {
+            if (!parameterType.isPrimitive()) {
+                if (!isNull(arg) && !parameterType.isInstance(arg)) {
+                    throw new IllegalArgumentException("argument type mismatch at parameter " + index);
+                }
+            } else if (isNull(arg)) {
+                throw new IllegalArgumentException("null for primitive parameter " + index);
+            } else if (!UNBOXING.get(parameterType).contains(arg.getClass())) {
+                throw new IllegalArgumentException("argument type mismatch at parameter " + index);
+            }
+        }
+    }
+
+    private static final class ReflectiveInvoker extends ApiMethodInvoker {
+
+        private final Method method;
+
+        private ReflectiveInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws InvocationTargetException, IllegalAccessException {
+            return method.invoke(target, args);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.google.common.collect.Maps;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * 单个方法的调用指标: 参数绑定、调用、序列化三个阶段的延迟直方图, 成功次数和按异常类型的失败次数
+ *
+ * @author uhfun
+ */
+public class ApiMethodMetrics {
+
+    public enum Phase {
+        BIND, INVOKE, SERIALIZE
+    }
+
+    private final String key;
+    private final EnumMap<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final LongAdder success = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final BiConsumer<ApiMethodMetrics, String> errorTypeListener;
+    private final long createdAt = System.nanoTime();
+
+    ApiMethodMetrics(String key, BiConsumer<ApiMethodMetrics, String> errorTypeListener) {
+        this.key = key;
+        this.errorTypeListener = errorTypeListener;
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    public void success() {
+        success.increment();
+    }
+
+    public void failure(Throwable e) {
+        String type = errorTypeOf(e);
+        LongAdder counter = errors.get(type);
+        if (isNull(counter)) {
+            LongAdder created = new LongAdder();
+            counter = errors.putIfAbsent(type, created);
+            if (isNull(counter)) {
+                counter = created;
+                errorTypeListener.accept(this, type);
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * 业务异常按InvocationTargetException里的目标异常归类, 其余按异常本身的类型
+     */
+    private static String errorTypeOf(Throwable e) {
+        if (e instanceof CompletionException && nonNull(e.getCause())) {
+            e = e.getCause();
+        }
+        if (e instanceof InvocationTargetException && nonNull(((InvocationTargetException) e).getTargetException())) {
+            e = ((InvocationTargetException) e).getTargetException();
+        }
+        return e.getClass().getName();
+    }
+
+    public long successCount() {
+        return success.sum();
+    }
+
+    public Set<String> errorTypes() {
+        return Collections.unmodifiableSet(errors.keySet());
+    }
+
+    public long errorCount(String type) {
+        LongAdder counter = errors.get(type);
+        return isNull(counter) ? 0 : counter.sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = Maps.newLinkedHashMap();
+        long successCount = success.sum();
+        Map<String, Long> errorCounts = Maps.newTreeMap();
+        long errorCount = 0;
+        for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+            long count = entry.getValue().sum();
+            errorCounts.put(entry.getKey(), count);
+            errorCount += count;
+        }
+        double seconds = (System.nanoTime() - createdAt) / 1e9;
+        stats.put("success", successCount);
+        stats.put("errors", errorCounts);
+        stats.put("throughput", seconds <= 0 ? 0 : Math.round((successCount + errorCount) / seconds * 1000) / 1000.0);
+        for (Phase phase : Phase.values()) {
+            stats.put(phase.name().toLowerCase(), histograms.get(phase).snapshot().toMap());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+
+import static java.util.Objects.isNull;
+
+/**
+ * 启动时从ServiceBean解析好的服务对象: ref是dubbo暴露的对象, 可能是Spring AOP代理, 调用走ref;
+ * target是剥掉代理后的对象, 用于查找实现类上的方法和注解
+ *
+ * @author uhfun
+ */
+public class ApiServiceHandle {
+
+    private final Class<?> serviceInterface;
+    private final Object ref;
+    private final Object target;
+    private final Class<?> targetClass;
+
+    private ApiServiceHandle(Class<?> serviceInterface, Object ref) {
+        this.serviceInterface = serviceInterface;
+        this.ref = ref;
+        this.target = unwrap(ref);
+        this.targetClass = AopProxyUtils.ultimateTargetClass(ref);
+    }
+
+    public static ApiServiceHandle of(Class<?> serviceInterface, Object ref) {
+        return new ApiServiceHandle(serviceInterface, ref);
+    }
+
+    /**
+     * 非单例的TargetSource拿不到固定的目标对象, 这时保留代理本身
+     */
+    private static Object unwrap(Object ref) {
+        Object current = ref;
+        while (AopUtils.isAopProxy(current)) {
+            Object next = AopProxyUtils.getSingletonTarget(current);
+            if (isNull(next)) {
+                break;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    public Class<?> serviceInterface() {
+        return serviceInterface;
+    }
+
+    public Object ref() {
+        return ref;
+    }
+
+    public Object target() {
+        return target;
+    }
+
+    public Class<?> targetClass() {
+        return targetClass;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.alibaba.dubbo.common.utils.PojoUtils;
+import com.alibaba.dubbo.config.ReferenceConfig;
+import com.alibaba.dubbo.config.RegistryConfig;
+import com.alibaba.dubbo.config.spring.ServiceBean;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.service.GenericException;
+import com.alibaba.dubbo.rpc.service.GenericService;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static springfox.documentation.builders.BuilderDefaults.nullToEmptyList;
+
+/**
+ * 通过dubbo泛化调用访问远程服务, 每个接口的引用只构建一次并按LRU缓存,
+ * 被淘汰的引用等在途调用全部结束后才销毁
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class GenericServiceInvoker implements DisposableBean {
+
+    private final SwaggerMoreProperties properties;
+    private final Map<Class<?>, ServiceBean> serviceBeans;
+    private final Cache<Class<?>, GenericReference> references;
+
+    @Autowired
+    public GenericServiceInvoker(List<ServiceBean> serviceBeans, SwaggerMoreProperties properties) {
+        this.properties = properties;
+        this.serviceBeans = nullToEmptyList(serviceBeans).stream()
+                .collect(toMap(ServiceBean::getInterfaceClass, identity(), (o1, o2) -> o1));
+        this.references = CacheBuilder.newBuilder()
+                .maximumSize(properties.genericCacheSize())
+                .removalListener((RemovalListener<Class<?>, GenericReference>) notification -> notification.getValue().evict())
+                .build();
+    }
+
+    public Object invoke(ApiInvocationPlan plan, Object[] args) throws InvocationTargetException {
+        GenericReference reference = acquire(plan.serviceInterface());
+        try {
+            return reference.service.$invoke(plan.method().getName(), plan.parameterTypeNames(), PojoUtils.generalize(args));
+        } catch (GenericException | RpcException e) {
+            throw new InvocationTargetException(e);
+        } finally {
+            reference.release();
+        }
+    }
+
+    /**
+     * 取到的引用可能在计数前刚好被淘汰, 这时重新从缓存中取
+     */
+    private GenericReference acquire(Class<?> serviceInterface) {
+        while (true) {
+            GenericReference reference;
+            try {
+                // 加载失败不会进入缓存, 下次调用重新创建
+                reference = references.get(serviceInterface, () -> build(serviceInterface));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                throw new SwaggerMoreException("无法创建泛化引用 " + serviceInterface.getName() + ": " + e.getCause().getMessage());
+            }
+            if (reference.retain()) {
+                return reference;
+            }
+        }
+    }
+
+    private GenericReference build(Class<?> serviceInterface) {
+        ServiceBean bean = serviceBeans.get(serviceInterface);
+        if (isNull(bean)) {
+            throw new SwaggerMoreException("找不到服务: " + serviceInterface.getName());
+        }
+        ReferenceConfig<GenericService> reference = new ReferenceConfig<>();
+        reference.setApplication(bean.getApplication());
+        reference.setInterface(serviceInterface.getName());
+        reference.setGroup(bean.getGroup());
+        reference.setVersion(bean.getVersion());
+        reference.setGeneric(true);
+        reference.setCheck(false);
+        reference.setTimeout(properties.genericTimeout());
+        // 同一JVM内也要走远程调用, 否则会被injvm协议短路到本地对象
+        reference.setScope("remote");
+        if (StringUtils.hasText(properties.genericUrl())) {
+            reference.setUrl(properties.genericUrl());
+        } else if (StringUtils.hasText(properties.genericRegistry())) {
+            reference.setRegistry(new RegistryConfig(properties.genericRegistry()));
+        } else {
+            reference.setRegistries(bean.getRegistries());
+        }
+        log.info("[swagger-more] 创建泛化引用: {}", serviceInterface.getName());
+        try {
+            return new GenericReference(reference, reference.get());
+        } catch (RuntimeException e) {
+            reference.destroy();
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        references.invalidateAll();
+    }
+
+    /**
+     * 缓存的泛化引用及其在途调用数, 被淘汰且没有在途调用时销毁
+     */
+    private static final class GenericReference {
+        private final ReferenceConfig<GenericService> config;
+        private final GenericService service;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean destroyed = new AtomicBoolean();
+        private volatile boolean evicted;
+
+        private GenericReference(ReferenceConfig<GenericService> config, GenericService service) {
+            this.config = config;
+            this.service = service;
+        }
+
+        private boolean retain() {
+            inFlight.incrementAndGet();
+            if (evicted) {
+                release();
+                return false;
+            }
+            return true;
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() == 0 && evicted) {
+                destroyOnce();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (inFlight.get() == 0) {
+                destroyOnce();
+            }
+        }
+
+        private void destroyOnce() {
+            if (destroyed.compareAndSet(false, true)) {
+                log.info("[swagger-more] 销毁泛化引用: {}", config.getInterface());
+                config.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.swagger.annotations.ApiModelProperty;
+import javassist.*;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.BooleanMemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 在内存中生成多参数方法合并后的DTO类型, 不写磁盘
+ * 每个类型定义在独立的子classloader中, 不再被引用时连同classloader一起回收;
+ * 字段结构相同的类型直接复用, 每次生成使用独立的ClassPool, 生成字节码后即释放javassist元数据
+ *
+ * @author uhfun
+ */
+@Slf4j
+public class GeneratedTypeFactory {
+
+    private static final GeneratedTypeFactory SHARED = new GeneratedTypeFactory();
+
+    private final Cache<ClassLoader, Cache<List<String>, Class<?>>> types = CacheBuilder.newBuilder().weakKeys().build();
+
+    public static GeneratedTypeFactory shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param parent 能访问所有字段类型的classloader, 一般为方法声明类的classloader
+     */
+    public Class<?> make(ClassLoader parent, String className, Class[] fieldTypes, List<String> names, List<String> values) {
+        List<String> key = structuralKey(className, fieldTypes, names, values);
+        ClassLoader loader = parent == null ? ClassUtils.getDefaultClassLoader() : parent;
+        try {
+            return types.get(loader, () -> CacheBuilder.newBuilder().weakValues().build())
+                    .get(key, () -> define(loader, className, fieldTypes, names, values));
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Dynamically generated class error :", e);
+            return null;
+        }
+    }
+
+    private static List<String> structuralKey(String className, Class[] fieldTypes, List<String> names, List<String> values) {
+        ImmutableList.Builder<String> key = ImmutableList.<String>builder().add(className);
+        for (int i = 0; i < fieldTypes.length; i++) {
+            key.add(fieldTypes[i].getName(), names.get(i), values.get(i));
+        }
+        return key.build();
+    }
+
+    private Class<?> define(ClassLoader parent, String className, Class[] fieldTypes, List<String> names, List<String> values)
+            throws Exception {
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(parent));
+        CtClass ctClass = pool.makeClass(className);
+        for (int i = 0; i < fieldTypes.length; i++) {
+            ctClass.addField(createField(pool.get(fieldTypes[i].getName()), names.get(i), values.get(i), ctClass));
+        }
+        byte[] bytecode = ctClass.toBytecode();
+        ctClass.detach();
+        log.debug("[swagger-more] 生成类型 {}", className);
+        return new GeneratedClassLoader(parent).define(className, bytecode);
+    }
+
+    private static CtField createField(CtClass type, String name, String value, CtClass ctClass) throws CannotCompileException {
+        CtField field = new CtField(type, name, ctClass);
+        field.setModifiers(javassist.Modifier.PUBLIC);
+        ConstPool constPool = ctClass.getClassFile().getConstPool();
+        AnnotationsAttribute attr = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+        Annotation ann = new Annotation(ApiModelProperty.class.getName(), constPool);
+        ann.addMemberValue("value", new StringMemberValue(value, constPool));
+        ann.addMemberValue("name", new StringMemberValue(name, constPool));
+        ann.addMemberValue("required", new BooleanMemberValue(true, constPool));
+        attr.addAnnotation(ann);
+        field.getFieldInfo().addAttribute(attr);
+        return field;
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String className, byte[] bytecode) {
+            return defineClass(className, bytecode, 0, bytecode.length);
+        }
+    }
+}
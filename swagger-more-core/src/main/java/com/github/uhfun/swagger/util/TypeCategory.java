@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static springfox.documentation.schema.Types.typeNameFor;
+
+/**
+ * 类型分类, 每个Class只计算一次, 之后通过ClassValue直接读取, 不产生额外对象
+ *
+ * @author uhfun
+ */
+public enum TypeCategory {
+    BASE, CONTAINER, MAP, COMPLEX, ARRAY;
+
+    private static final ClassValue<TypeCategory> CATEGORIES = new ClassValue<TypeCategory>() {
+        @Override
+        protected TypeCategory computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    public static TypeCategory of(Class<?> type) {
+        return CATEGORIES.get(type);
+    }
+
+    private static TypeCategory classify(Class<?> type) {
+        if (type.isArray()) {
+            return ARRAY;
+        }
+        if (List.class.isAssignableFrom(type) || Set.class.isAssignableFrom(type)) {
+            return CONTAINER;
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return MAP;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return CONTAINER;
+        }
+        if (springfox.documentation.schema.Types.isBaseType(typeNameFor(type))) {
+            return BASE;
+        }
+        return COMPLEX;
+    }
+}
@@ -18,34 +18,27 @@
  */
 package com.github.uhfun.swagger.util;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import static springfox.documentation.schema.Types.typeNameFor;
+import static com.github.uhfun.swagger.util.TypeCategory.*;
 
 /**
  * @author uhfun
  */
 public class TypeUtils {
     public static boolean isContainerType(Class type) {
-        return List.class.isAssignableFrom(type) ||
-                Set.class.isAssignableFrom(type) ||
-                (Collection.class.isAssignableFrom(type) && !isMapType(type)) ||
-                type.isArray();
+        TypeCategory category = TypeCategory.of(type);
+        return category == CONTAINER || category == ARRAY;
     }
 
     public static boolean isBaseType(Class type) {
-        return springfox.documentation.schema.Types.isBaseType(typeNameFor(type));
+        return TypeCategory.of(type) == BASE;
     }
 
     public static boolean isMapType(Class type) {
-        return Map.class.isAssignableFrom(type);
+        return TypeCategory.of(type) == MAP;
     }
 
     public static boolean isComplexObjectType(Class<?> type) {
-        return !isContainerType(type) && !isBaseType(type) && !isMapType(type);
+        return TypeCategory.of(type) == COMPLEX;
     }
 
 }
@@ -18,7 +18,17 @@
  */
 package com.github.uhfun.swagger.util;
 
+import com.github.uhfun.swagger.common.PayloadTooLargeException;
+
 import javax.servlet.http.HttpServletRequest;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author uhfun
@@ -40,4 +50,66 @@ public class WebUtils {
 
         return ip;
     }
+
+    /**
+     * 直接基于ServletInputStream解码, 不整体读入内存; 请求体为空时返回null
+     */
+    public static Reader getBodyReader(HttpServletRequest request, long maxBodySize) throws IOException {
+        if (maxBodySize > 0 && request.getContentLength() > maxBodySize) {
+            throw new PayloadTooLargeException(maxBodySize);
+        }
+        PushbackInputStream in = new PushbackInputStream(maxBodySize > 0
+                ? new BoundedInputStream(request.getInputStream(), maxBodySize)
+                : request.getInputStream());
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        in.unread(first);
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new InputStreamReader(in, charset);
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long max;
+        private long count;
+
+        BoundedInputStream(InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > max) {
+                throw new PayloadTooLargeException(max);
+            }
+        }
+    }
 }
@@ -0,0 +1,354 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.alibaba.fastjson.JSONWriter;
+import com.github.uhfun.swagger.common.PayloadTooLargeException;
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.invoke.ApiArgumentBinder;
+import com.github.uhfun.swagger.invoke.ApiArgumentBinder.ArgumentReader;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import com.github.uhfun.swagger.invoke.ApiInvocationRegistry;
+import com.github.uhfun.swagger.invoke.ApiInvokeLogger;
+import com.github.uhfun.swagger.invoke.ApiInvokeMetrics;
+import com.github.uhfun.swagger.invoke.ApiInvoker;
+import com.github.uhfun.swagger.invoke.ApiMethodMetrics;
+import com.github.uhfun.swagger.util.WebUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static com.alibaba.fastjson.parser.Feature.AutoCloseSource;
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.BIND;
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.INVOKE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * 批量调用, 请求体为 [{"service": "", "method": "", "args": {}}], 按顺序流式写出每个调用的结果.
+ * 请求体边读边绑定参数, 每个调用的args需要放在service和method之后. 某个调用的参数绑定失败时请求体无法继续读取,
+ * 写出该调用的失败后结束, 之后的调用不再执行
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Controller
+public class ApiBatchInvokeController {
+
+    private final ApiInvocationRegistry invocationRegistry;
+    private final ApiInvoker invoker;
+    private final SwaggerMoreProperties properties;
+    private final ApiInvokeMetrics invokeMetrics;
+    private final ApiInvokeLogger invokeLogger;
+
+    @Autowired
+    public ApiBatchInvokeController(ApiInvocationRegistry invocationRegistry,
+                                    ApiInvoker invoker,
+                                    SwaggerMoreProperties properties,
+                                    ApiInvokeMetrics invokeMetrics,
+                                    ApiInvokeLogger invokeLogger) {
+        this.invocationRegistry = invocationRegistry;
+        this.invoker = invoker;
+        this.properties = properties;
+        this.invokeMetrics = invokeMetrics;
+        this.invokeLogger = invokeLogger;
+    }
+
+    @PostMapping("/dubbo/_batch")
+    public void batchInvoke(@RequestParam(defaultValue = "false") boolean parallel,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        Reader body = WebUtils.getBodyReader(request, properties.maxBodySize());
+        if (isNull(body)) {
+            throw new SwaggerMoreException("批量调用的请求体不能为空");
+        }
+        String invokeId = invokeLogger.nextId();
+        log.info("[swagger-more] 批量调用({}): ip: {}, 并行: {}", invokeId, WebUtils.getRemoteAddr(request), parallel);
+        BatchWriter writer = new BatchWriter(response);
+        // 同时在途的调用数不超过invoke.batch.parallelism, 按顺序等待并写出最早提交的调用
+        Deque<PendingCall> inFlight = new ArrayDeque<>();
+        int count = 0;
+        try (ArgumentReader reader = new ArgumentReader(body)) {
+            reader.startArray();
+            boolean readable = true;
+            while (readable && reader.hasNext()) {
+                BatchCall call = readCall(reader);
+                readable = !call.unreadable;
+                count++;
+                if (!parallel) {
+                    writer.write(invoke(call));
+                    continue;
+                }
+                if (inFlight.size() >= properties.invokeBatchParallelism()) {
+                    writer.write(await(inFlight.poll()));
+                }
+                inFlight.add(new PendingCall(call, invokeAsync(call)));
+            }
+            if (readable) {
+                reader.endArray();
+            } else {
+                // 剩下的请求体不再读取, 关闭时也不检查是否读到了结尾
+                reader.config(AutoCloseSource, false);
+                log.warn("[swagger-more] 批量调用({})第{}个调用的参数绑定失败, 之后的调用不再执行", invokeId, count);
+            }
+        } catch (RuntimeException e) {
+            // 还没有写出结果时按单次调用一样交给ExceptionMessages, 否则在已写出的结果后追加一条失败
+            if (!writer.started()) {
+                inFlight.forEach(pending -> pending.future.cancel(false));
+                throw e;
+            }
+            log.error("[swagger-more] 批量调用({})读取请求体失败", invokeId, e);
+            drain(inFlight, writer);
+            writer.write(failure(new BatchCall(), e, System.nanoTime()));
+            writer.end();
+            return;
+        }
+        drain(inFlight, writer);
+        writer.end();
+        log.info("[swagger-more] 批量调用({})完成, 调用数: {}", invokeId, count);
+    }
+
+    /**
+     * 边读边绑定参数, args要放在service和method之后才能按方法的参数类型直接从请求体反序列化
+     */
+    private BatchCall readCall(ArgumentReader reader) {
+        BatchCall call = new BatchCall();
+        boolean argsRead = false;
+        reader.startObject();
+        while (reader.hasNext()) {
+            String key = reader.readString();
+            if ("service".equals(key)) {
+                call.service = reader.readString();
+            } else if ("method".equals(key)) {
+                call.method = reader.readString();
+            } else if ("args".equals(key)) {
+                argsRead = true;
+                bind(call, reader);
+                if (call.unreadable) {
+                    return call;
+                }
+            } else {
+                reader.readObject();
+            }
+        }
+        reader.endObject();
+        if (!argsRead) {
+            bind(call, null);
+        }
+        return call;
+    }
+
+    private void bind(BatchCall call, ArgumentReader reader) {
+        if (nonNull(reader) && (isNull(call.service) || isNull(call.method))) {
+            reader.readObject();
+            call.error = new SwaggerMoreException("args必须放在service和method之后");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            call.plan = invocationRegistry.get(call.service, call.method);
+        } catch (SwaggerMoreException e) {
+            if (nonNull(reader)) {
+                reader.readObject();
+            }
+            call.error = e;
+            return;
+        }
+        try {
+            call.args = isNull(reader) || reader.skipNull()
+                    ? ApiArgumentBinder.bind(call.plan, "{}")
+                    : ApiArgumentBinder.bind(call.plan, reader);
+        } catch (PayloadTooLargeException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // 参数值读到一半失败, 请求体的读取位置已经不可用
+            call.error = e;
+            call.unreadable = nonNull(reader);
+            return;
+        }
+        invokeMetrics.of(call.plan).record(BIND, System.nanoTime() - start);
+    }
+
+    private void drain(Deque<PendingCall> inFlight, BatchWriter writer) throws IOException {
+        while (!inFlight.isEmpty()) {
+            writer.write(await(inFlight.poll()));
+        }
+    }
+
+    private Map<String, Object> await(PendingCall pending) {
+        long remaining = properties.asyncTimeout() - (System.nanoTime() - pending.call.start) / 1_000_000;
+        try {
+            return pending.future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.future.cancel(false);
+            return failure(pending.call, timeout(), pending.call.start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure(pending.call, e, pending.call.start);
+        } catch (ExecutionException e) {
+            return failure(pending.call, e.getCause(), pending.call.start);
+        }
+    }
+
+    private Map<String, Object> invoke(BatchCall call) {
+        if (nonNull(call.error)) {
+            return failure(call, call.error, call.start);
+        }
+        ApiMethodMetrics metrics = invokeMetrics.of(call.plan);
+        long invokeStart = System.nanoTime();
+        try {
+            Object result = invoker.invoke(call.plan, call.args);
+            metrics.record(INVOKE, System.nanoTime() - invokeStart);
+            metrics.success();
+            return success(call, result);
+        } catch (Throwable e) {
+            metrics.record(INVOKE, System.nanoTime() - invokeStart);
+            metrics.failure(e);
+            return failure(call, e instanceof AsyncRequestTimeoutException ? timeout() : e, call.start);
+        }
+    }
+
+    private TimeoutException timeout() {
+        return new TimeoutException("调用超时, 超过" + properties.asyncTimeout() + "ms仍未返回");
+    }
+
+    private CompletableFuture<Map<String, Object>> invokeAsync(BatchCall call) {
+        if (nonNull(call.error)) {
+            return CompletableFuture.completedFuture(failure(call, call.error, call.start));
+        }
+        ApiMethodMetrics metrics = invokeMetrics.of(call.plan);
+        long invokeStart = System.nanoTime();
+        try {
+            return invoker.invokeAsync(call.plan, call.args).handle((result, e) -> {
+                metrics.record(INVOKE, System.nanoTime() - invokeStart);
+                if (isNull(e)) {
+                    metrics.success();
+                    return success(call, result);
+                }
+                metrics.failure(e);
+                return failure(call, e, call.start);
+            });
+        } catch (Throwable e) {
+            return CompletableFuture.completedFuture(failure(call, e, call.start));
+        }
+    }
+
+    private Map<String, Object> success(BatchCall call, Object result) {
+        Map<String, Object> item = head(call, true, call.start);
+        item.put("result", call.plan.voidReturn() ? "成功" : result);
+        return item;
+    }
+
+    private Map<String, Object> failure(BatchCall call, Throwable e, long start) {
+        Map<String, Object> item = head(call, false, start);
+        if (e instanceof CompletionException && !isNull(e.getCause())) {
+            e = e.getCause();
+        }
+        if (e instanceof InvocationTargetException) {
+            Throwable target = ((InvocationTargetException) e).getTargetException();
+            log.error("", e);
+            item.put("error", "异常: throw new " + target.getClass().getSimpleName() + "(\"" + target.getMessage() + "\");");
+        } else {
+            item.put("error", e.getMessage());
+        }
+        return item;
+    }
+
+    private Map<String, Object> head(BatchCall call, boolean success, long start) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("service", call.service);
+        item.put("method", call.method);
+        item.put("success", success);
+        item.put("elapsed", (System.nanoTime() - start) / 1_000_000);
+        return item;
+    }
+
+    /**
+     * 写出第一条结果时才打开响应, 在此之前出错仍可以由ExceptionMessages按状态码响应
+     */
+    private static final class BatchWriter {
+        private final HttpServletResponse response;
+        private JSONWriter writer;
+
+        private BatchWriter(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        private boolean started() {
+            return nonNull(writer);
+        }
+
+        private void write(Map<String, Object> item) throws IOException {
+            open();
+            writer.writeObject(item);
+            writer.flush();
+        }
+
+        private void end() throws IOException {
+            open();
+            writer.endArray();
+            writer.flush();
+        }
+
+        private void open() throws IOException {
+            if (started()) {
+                return;
+            }
+            response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+            writer = new JSONWriter(response.getWriter());
+            writer.startArray();
+        }
+    }
+
+    private static final class BatchCall {
+        private final long start = System.nanoTime();
+        private String service;
+        private String method;
+        private ApiInvocationPlan plan;
+        private Object[] args;
+        private Throwable error;
+        private boolean unreadable;
+    }
+
+    private static final class PendingCall {
+        private final BatchCall call;
+        private final CompletableFuture<Map<String, Object>> future;
+
+        private PendingCall(BatchCall call, CompletableFuture<Map<String, Object>> future) {
+            this.call = call;
+            this.future = future;
+        }
+    }
+}
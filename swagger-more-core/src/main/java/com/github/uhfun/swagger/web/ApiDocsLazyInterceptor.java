@@ -0,0 +1,51 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.extension.LazyApiDocumentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import springfox.documentation.spring.web.plugins.Docket;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
+
+/**
+ * 懒加载模式下, 在Swagger2Controller读取DocumentationCache之前生成所访问分组的文档
+ *
+ * @author uhfun
+ */
+@Component
+public class ApiDocsLazyInterceptor extends HandlerInterceptorAdapter {
+
+    private final LazyApiDocumentation lazyDocumentation;
+
+    @Autowired
+    public ApiDocsLazyInterceptor(LazyApiDocumentation lazyDocumentation) {
+        this.lazyDocumentation = lazyDocumentation;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        lazyDocumentation.ensure(Optional.ofNullable(request.getParameter("group")).orElse(Docket.DEFAULT_GROUP_NAME));
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import springfox.documentation.spring.web.plugins.Docket;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * 开启快照后直接返回缓存的api-docs字节, 支持If-None-Match和gzip
+ *
+ * @author uhfun
+ */
+@Component
+public class ApiDocsSnapshotInterceptor extends HandlerInterceptorAdapter {
+
+    private final ApiDocsSnapshots snapshots;
+
+    @Autowired
+    public ApiDocsSnapshotInterceptor(ApiDocsSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String group = Optional.ofNullable(request.getParameter("group")).orElse(Docket.DEFAULT_GROUP_NAME);
+        ApiDocsSnapshots.Snapshot snapshot = snapshots.get(group, request);
+        if (isNull(snapshot)) {
+            // 交给Swagger2Controller返回404
+            return true;
+        }
+        response.setHeader(HttpHeaders.ETAG, snapshot.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (nonNull(ifNoneMatch) && (ifNoneMatch.contains(snapshot.etag()) || "*".equals(ifNoneMatch.trim()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        byte[] body = snapshot.json();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (nonNull(snapshot.gzip()) && nonNull(acceptEncoding) && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = snapshot.gzip();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+}
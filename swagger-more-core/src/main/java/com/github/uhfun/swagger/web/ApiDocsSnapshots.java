@@ -0,0 +1,157 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.swagger.models.Swagger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponents;
+import springfox.documentation.service.Documentation;
+import springfox.documentation.spring.web.DocumentationCache;
+import springfox.documentation.spring.web.json.JsonSerializer;
+import springfox.documentation.swagger2.mappers.ServiceModelToSwagger2Mapper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static springfox.documentation.swagger.common.HostNameProvider.componentsFrom;
+
+/**
+ * 序列化后的api-docs缓存, 按分组和访问地址(host、basePath)区分, 与Swagger2Controller输出的内容一致
+ *
+ * @author uhfun
+ */
+@Slf4j
+@Component
+public class ApiDocsSnapshots {
+
+    private final DocumentationCache documentationCache;
+    private final ServiceModelToSwagger2Mapper mapper;
+    private final JsonSerializer jsonSerializer;
+    private final SwaggerMoreProperties properties;
+    private final String hostNameOverride;
+    private final Cache<String, Snapshot> snapshots = CacheBuilder.newBuilder().maximumSize(64).build();
+
+    @Autowired
+    public ApiDocsSnapshots(DocumentationCache documentationCache,
+                            ServiceModelToSwagger2Mapper mapper,
+                            JsonSerializer jsonSerializer,
+                            SwaggerMoreProperties properties,
+                            Environment environment) {
+        this.documentationCache = documentationCache;
+        this.mapper = mapper;
+        this.jsonSerializer = jsonSerializer;
+        this.properties = properties;
+        this.hostNameOverride = environment.getProperty("springfox.documentation.swagger.v2.host", "DEFAULT");
+    }
+
+    /**
+     * 分组不存在时返回null
+     */
+    public Snapshot get(String group, HttpServletRequest request) {
+        Documentation documentation = documentationCache.documentationByGroup(group);
+        if (isNull(documentation)) {
+            return null;
+        }
+        String basePath = documentation.getBasePath();
+        UriComponents uriComponents = componentsFrom(request, basePath);
+        String key = group + "|" + uriComponents.toUriString();
+        try {
+            return snapshots.get(key, () -> build(documentation, uriComponents));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new SwaggerMoreException("api-docs序列化失败: " + e.getCause().getMessage());
+        }
+    }
+
+    public void evict(String group) {
+        snapshots.asMap().keySet().removeIf(key -> key.startsWith(group + "|"));
+    }
+
+    public void evictAll() {
+        snapshots.invalidateAll();
+    }
+
+    private Snapshot build(Documentation documentation, UriComponents uriComponents) throws IOException {
+        long start = System.currentTimeMillis();
+        Swagger swagger = mapper.mapDocumentation(documentation);
+        swagger.basePath(Strings.isNullOrEmpty(uriComponents.getPath()) ? "/" : uriComponents.getPath());
+        if (Strings.isNullOrEmpty(swagger.getHost())) {
+            swagger.host(hostName(uriComponents));
+        }
+        byte[] json = jsonSerializer.toJson(swagger).value().getBytes(UTF_8);
+        byte[] gzip = null;
+        if (properties.docsSnapshotGzip()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                gzipOut.write(json);
+            }
+            gzip = out.toByteArray();
+        }
+        String etag = "\"" + Hashing.murmur3_128().hashBytes(json).toString() + "\"";
+        log.info("[swagger-more] 生成api-docs快照: {}, 大小: {}, 耗时: {}ms", documentation.getGroupName(), json.length, System.currentTimeMillis() - start);
+        return new Snapshot(json, gzip, etag);
+    }
+
+    private String hostName(UriComponents uriComponents) {
+        if ("DEFAULT".equals(hostNameOverride)) {
+            String host = uriComponents.getHost();
+            int port = uriComponents.getPort();
+            return port > -1 ? String.format("%s:%d", host, port) : host;
+        }
+        return hostNameOverride;
+    }
+
+    public static class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+
+        private Snapshot(byte[] json, byte[] gzip, String etag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public byte[] gzip() {
+            return gzip;
+        }
+
+        public String etag() {
+            return etag;
+        }
+    }
+}
@@ -19,45 +19,64 @@
 package com.github.uhfun.swagger.web;
 
 import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.parser.ParserConfig;
-import com.alibaba.fastjson.util.TypeUtils;
-import com.github.uhfun.swagger.annotations.ApiMethod;
-import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.invoke.ApiArgumentBinder;
+import com.github.uhfun.swagger.invoke.ApiInvocationPlan;
+import com.github.uhfun.swagger.invoke.ApiInvocationRegistry;
+import com.github.uhfun.swagger.invoke.ApiInvokeLogger;
+import com.github.uhfun.swagger.invoke.ApiInvokeMetrics;
+import com.github.uhfun.swagger.invoke.ApiInvoker;
+import com.github.uhfun.swagger.invoke.ApiMethodMetrics;
 import com.github.uhfun.swagger.util.WebUtils;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.aop.framework.AopProxyUtils;
-import org.springframework.aop.support.AopUtils;
-import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
+import java.io.Reader;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.alibaba.fastjson.parser.Feature.*;
-import static com.github.uhfun.swagger.util.TypeUtils.isComplexObjectType;
-import static com.github.uhfun.swagger.util.TypeUtils.isContainerType;
-import static java.util.Objects.nonNull;
+import static com.alibaba.fastjson.parser.Feature.OrderedField;
+import static com.alibaba.fastjson.parser.Feature.SupportAutoType;
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.BIND;
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.INVOKE;
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.SERIALIZE;
+import static java.util.Objects.isNull;
 
 /**
  * @author uhfun
  */
-@Slf4j
 @Controller
 public class ApiInvokeController {
 
+    private final ApiInvocationRegistry invocationRegistry;
+    private final ApiInvoker invoker;
+    private final SwaggerMoreProperties properties;
+    private final ApiInvokeMetrics invokeMetrics;
+    private final ApiInvokeLogger invokeLogger;
+    private final ApiResultStreamer resultStreamer;
+
+    @Autowired
+    public ApiInvokeController(ApiInvocationRegistry invocationRegistry,
+                               ApiInvoker invoker,
+                               SwaggerMoreProperties properties,
+                               ApiInvokeMetrics invokeMetrics,
+                               ApiInvokeLogger invokeLogger,
+                               ApiResultStreamer resultStreamer) {
+        this.invocationRegistry = invocationRegistry;
+        this.invoker = invoker;
+        this.properties = properties;
+        this.invokeMetrics = invokeMetrics;
+        this.invokeLogger = invokeLogger;
+        this.resultStreamer = resultStreamer;
+    }
+
     @GetMapping("/api/dubbo")
     public String dubboApi() {
         return "/api/index.html";
@@ -68,77 +87,74 @@ public class ApiInvokeController {
     @ResponseBody
     public Object invoke(@PathVariable String classSimpleName,
                          @PathVariable String methodName,
-                         HttpServletRequest request) throws IOException, InvocationTargetException, IllegalAccessException {
-        Object target = ApplicationHolder.getBean(classSimpleName.substring(0, 1).toLowerCase() + classSimpleName.substring(1));
-        Object actualTarget = AopUtils.isAopProxy(target) ? AopProxyUtils.getSingletonTarget(target) : target;
-        String invokeId = UUID.randomUUID().toString();
-        log.info("[swagger-more] 调用({}): ip: {}, invoke -> {}.{}", invokeId, WebUtils.getRemoteAddr(request), actualTarget.getClass(), methodName);
-        Method method = getMethod(methodName, actualTarget.getClass());
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws Exception {
+        ApiInvocationPlan plan = invocationRegistry.get(classSimpleName, methodName);
+        ApiResultSerializer serializer = resultStreamer.serializerOf(request);
+        ApiMethodMetrics metrics = invokeMetrics.of(plan);
+        request.setAttribute(ApiInvokeMetricsInterceptor.METRICS_ATTRIBUTE, metrics);
+        long start = System.nanoTime();
         Enumeration enumeration = request.getParameterNames();
         JSONObject object = new JSONObject();
-        ApiMethod apiMethod = AnnotationUtils.findAnnotation(method, ApiMethod.class);
-        Map<String, Parameter> parameterMap = getParameterMap(nonNull(apiMethod) ? Stream.of(apiMethod.params()).map(ApiParam::name).collect(Collectors.toList()) : Lists.newArrayList(), method);
         while (enumeration.hasMoreElements()) {
             String name = (String) enumeration.nextElement();
             List<Object> values = Stream.of(request.getParameterValues(name))
                     .map(o -> o.startsWith("[") || o.startsWith("{") ? JSONObject.parseObject(o, SupportAutoType, OrderedField) : o).collect(Collectors.toList());
-            object.put(name, Objects.isNull(parameterMap.get(name)) || !isContainerType(parameterMap.get(name).getType()) ? values.get(0) : values);
+            object.put(name, plan.isContainerParameter(name) ? values : values.get(0));
         }
-        List<Object> params = Lists.newArrayList();
-        String body = getBodyString(request);
-        String payload = StringUtils.isEmpty(body) ? object.toJSONString() : body;
-        if (method.getParameterTypes().length == 1 && isComplexObjectType(method.getParameterTypes()[0])) {
-            params.add(JSONObject.parseObject(payload, method.getParameters()[0].getParameterizedType(), SupportAutoType, OrderedField));
-        } else {
-            parameterMap.keySet().forEach((name) -> {
-                String arg = JSONObject.parseObject(payload, DisableSpecialKeyDetect, OrderedField).getString(name);
-                params.add(StringUtils.isEmpty(arg) ? null : arg.startsWith("[") || arg.startsWith("{")
-                        ? JSONObject.parseObject(arg, parameterMap.get(name).getParameterizedType(), SupportAutoType, OrderedField)
-                        : TypeUtils.cast(arg, parameterMap.get(name).getParameterizedType(), ParserConfig.getGlobalInstance()));
+        Reader body = WebUtils.getBodyReader(request, properties.maxBodySize());
+        Object[] params = isNull(body) ? ApiArgumentBinder.bind(plan, object.toJSONString()) : ApiArgumentBinder.bind(plan, body);
+        metrics.record(BIND, System.nanoTime() - start);
+        invokeLogger.log(invokeLogger.nextId(), WebUtils.getRemoteAddr(request), plan, params);
+        if (properties.asyncInvoke()) {
+            DeferredResult<Object> deferredResult = new DeferredResult<>(properties.asyncTimeout());
+            long invokeStart = System.nanoTime();
+            invoker.invokeAsync(plan, params).whenComplete((result, e) -> {
+                metrics.record(INVOKE, System.nanoTime() - invokeStart);
+                if (isNull(e)) {
+                    metrics.success();
+                    try {
+                        deferredResult.setResult(respond(plan, result, serializer, metrics, response));
+                    } catch (IOException ex) {
+                        deferredResult.setErrorResult(ex);
+                    }
+                } else {
+                    metrics.failure(e);
+                    deferredResult.setErrorResult(e);
+                }
             });
+            // 声明的返回类型是Object, 按返回值的实际类型交给DeferredResult的处理器, 结果仍由@ResponseBody写出, 流式写出时在回调线程里直接写响应
+            return deferredResult;
         }
-        log.info("[swagger-more] 调用({}): 入参: {}", invokeId, JSONObject.toJSONString(params));
-        Object result = method.invoke(target, params.toArray());
-        return method.getReturnType().equals(void.class) ? "成功" : Objects.isNull(result) ? "null" : result;
-    }
-
-    private Method getMethod(String methodName, Class<?> clazz) {
-        Optional<Method> methodOptional;
-        if (methodName.contains("_(")) {
-            String[] methodStr = methodName.split("_");
-            methodOptional = Arrays.stream(clazz.getDeclaredMethods())
-                    .filter(m -> m.getName().equals(methodStr[0]))
-                    .filter(m -> ("(" + Stream.of(m.getParameters())
-                            .map(p -> p.getType().getSimpleName())
-                            .collect(Collectors.joining(", ")) + ")").equals(methodStr[1]))
-                    .findAny();
-        } else {
-            methodOptional = Arrays.stream(clazz.getDeclaredMethods())
-                    .filter(m -> m.getName().equals(methodName))
-                    .filter(m -> Modifier.isPublic(m.getModifiers()))
-                    .findAny();
+        long invokeStart = System.nanoTime();
+        Object result;
+        try {
+            result = invoker.invoke(plan, params);
+        } catch (Exception e) {
+            metrics.record(INVOKE, System.nanoTime() - invokeStart);
+            metrics.failure(e);
+            throw e;
         }
-        return methodOptional.orElseThrow(() -> new SwaggerMoreException("找不到方法: " + methodName));
+        metrics.record(INVOKE, System.nanoTime() - invokeStart);
+        metrics.success();
+        return respond(plan, result, serializer, metrics, response);
     }
 
-    private Map<String, Parameter> getParameterMap(List<String> names, Method method) {
-        Map<String, Parameter> map = Maps.newLinkedHashMap();
-        if (names.isEmpty()) {
-            Stream.of(method.getParameters()).forEach(parameter -> map.put(parameter.getName().replace("arg", "param"), parameter));
-            return map;
-        }
-        for (int i = 0; i < names.size(); i++) {
-            map.put(names.get(i), method.getParameters()[i]);
+    /**
+     * 指定了序列化方式时直接写到响应并返回null, @ResponseBody不会再写出
+     */
+    private Object respond(ApiInvocationPlan plan, Object result, ApiResultSerializer serializer,
+                           ApiMethodMetrics metrics, HttpServletResponse response) throws IOException {
+        if (isNull(serializer)) {
+            return toResponse(plan, result);
         }
-        return map;
+        long start = System.nanoTime();
+        resultStreamer.write(serializer, toResponse(plan, result), response);
+        metrics.record(SERIALIZE, System.nanoTime() - start);
+        return null;
     }
 
-    private String getBodyString(HttpServletRequest request) throws IOException {
-        String str;
-        StringBuilder wholeStr = new StringBuilder();
-        while ((str = request.getReader().readLine()) != null) {
-            wholeStr.append(str);
-        }
-        return wholeStr.toString();
+    private Object toResponse(ApiInvocationPlan plan, Object result) {
+        return plan.voidReturn() ? "成功" : Objects.isNull(result) ? "null" : result;
     }
 }
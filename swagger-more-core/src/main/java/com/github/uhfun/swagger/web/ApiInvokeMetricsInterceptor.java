@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.invoke.ApiMethodMetrics;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.github.uhfun.swagger.invoke.ApiMethodMetrics.Phase.SERIALIZE;
+import static java.util.Objects.nonNull;
+
+/**
+ * 统计调用结果的序列化耗时: 写出响应体之前记下开始时间, 请求完成后记录到方法指标
+ *
+ * @author uhfun
+ */
+@ControllerAdvice(assignableTypes = ApiInvokeController.class)
+public class ApiInvokeMetricsInterceptor extends HandlerInterceptorAdapter implements ResponseBodyAdvice<Object> {
+
+    static final String METRICS_ATTRIBUTE = ApiInvokeMetricsInterceptor.class.getName() + ".metrics";
+    private static final String SERIALIZE_START_ATTRIBUTE = ApiInvokeMetricsInterceptor.class.getName() + ".serializeStart";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (nonNull(body) && request instanceof ServletServerHttpRequest) {
+            ((ServletServerHttpRequest) request).getServletRequest().setAttribute(SERIALIZE_START_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object metrics = request.getAttribute(METRICS_ATTRIBUTE);
+        Object start = request.getAttribute(SERIALIZE_START_ATTRIBUTE);
+        if (nonNull(metrics) && nonNull(start)) {
+            ((ApiMethodMetrics) metrics).record(SERIALIZE, System.nanoTime() - (Long) start);
+            request.removeAttribute(SERIALIZE_START_ATTRIBUTE);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.invoke.ApiInvokeExecutor;
+import com.github.uhfun.swagger.invoke.ApiInvokeLogger;
+import com.github.uhfun.swagger.invoke.ApiInvokeMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+/**
+ * @author uhfun
+ */
+@Controller
+public class ApiMetricsController {
+
+    private final ApiInvokeExecutor invokeExecutor;
+    private final ApiInvokeMetrics invokeMetrics;
+    private final ApiInvokeLogger invokeLogger;
+
+    @Autowired
+    public ApiMetricsController(ApiInvokeExecutor invokeExecutor,
+                                ApiInvokeMetrics invokeMetrics,
+                                ApiInvokeLogger invokeLogger) {
+        this.invokeExecutor = invokeExecutor;
+        this.invokeMetrics = invokeMetrics;
+        this.invokeLogger = invokeLogger;
+    }
+
+    /**
+     * 按方法统计的调用指标, 延迟单位为毫秒
+     */
+    @GetMapping("/v2/api-metrics")
+    @ResponseBody
+    public Map<String, Object> invoke() {
+        return invokeMetrics.stats();
+    }
+
+    @GetMapping("/v2/api-metrics/executor")
+    @ResponseBody
+    public Map<String, Object> executor() {
+        return invokeExecutor.stats();
+    }
+
+    @GetMapping("/v2/api-metrics/log")
+    @ResponseBody
+    public Map<String, Object> log() {
+        return invokeLogger.stats();
+    }
+}
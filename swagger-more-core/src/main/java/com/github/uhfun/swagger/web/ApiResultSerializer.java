@@ -0,0 +1,57 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 流式写出调用结果的序列化方式, 按请求头X-Swagger-More-Serializer里的name选择
+ *
+ * @author uhfun
+ */
+public interface ApiResultSerializer {
+
+    String name();
+
+    String contentType();
+
+    Output open(OutputStream out) throws IOException;
+
+    /**
+     * 一次响应的写出过程, 集合结果按 startArray, writeElement..., [writeMore], endArray 的顺序调用,
+     * 其他结果只调用一次writeValue
+     */
+    interface Output extends Closeable {
+
+        void writeValue(Object value) throws IOException;
+
+        void startArray() throws IOException;
+
+        void writeElement(Object element) throws IOException;
+
+        /**
+         * 超过元素上限时写在最后的标记, remaining为剩余的元素个数, 未知时为-1
+         */
+        void writeMore(int limit, long remaining) throws IOException;
+
+        void endArray() throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * 不经过@ResponseBody的消息转换器, 直接把调用结果写到响应的输出流, 集合、Iterable和数组逐个元素写出,
+ * 超过元素上限时截断并在最后写出more标记
+ *
+ * @author uhfun
+ */
+@Component
+public class ApiResultStreamer {
+
+    public static final String SERIALIZER_HEADER = "X-Swagger-More-Serializer";
+
+    private final Map<String, ApiResultSerializer> serializers;
+    private final String defaultSerializer;
+    private final int maxElements;
+
+    @Autowired
+    public ApiResultStreamer(List<ApiResultSerializer> serializers, SwaggerMoreProperties properties) {
+        this.serializers = ImmutableMap.copyOf(Maps.uniqueIndex(serializers, s -> s.name().toLowerCase()));
+        this.defaultSerializer = properties.invokeStreamSerializer();
+        this.maxElements = properties.invokeStreamMaxElements();
+    }
+
+    /**
+     * 请求头优先, 其次是swagger.more.invoke.stream.serializer, 都没有时返回null, 不使用流式写出
+     */
+    public ApiResultSerializer serializerOf(HttpServletRequest request) {
+        String name = request.getHeader(SERIALIZER_HEADER);
+        if (!StringUtils.hasText(name)) {
+            name = defaultSerializer;
+        }
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        ApiResultSerializer serializer = serializers.get(name.trim().toLowerCase());
+        if (isNull(serializer)) {
+            throw new SwaggerMoreException("不支持的序列化方式: " + name + ", 可选: " + serializers.keySet());
+        }
+        return serializer;
+    }
+
+    public void write(ApiResultSerializer serializer, Object result, HttpServletResponse response) throws IOException {
+        response.setContentType(serializer.contentType());
+        try (ApiResultSerializer.Output output = serializer.open(response.getOutputStream())) {
+            if (result instanceof Collection) {
+                writeElements(output, ((Collection<?>) result).iterator(), ((Collection<?>) result).size());
+            } else if (result instanceof Iterable) {
+                writeElements(output, ((Iterable<?>) result).iterator(), -1);
+            } else if (!isNull(result) && result.getClass().isArray()) {
+                writeElements(output, arrayIterator(result), Array.getLength(result));
+            } else {
+                output.writeValue(result);
+            }
+        }
+        response.flushBuffer();
+    }
+
+    private void writeElements(ApiResultSerializer.Output output, Iterator<?> iterator, long size) throws IOException {
+        output.startArray();
+        int count = 0;
+        while (iterator.hasNext()) {
+            if (maxElements > 0 && count == maxElements) {
+                output.writeMore(maxElements, size < 0 ? -1 : size - count);
+                break;
+            }
+            output.writeElement(iterator.next());
+            count++;
+        }
+        output.endArray();
+    }
+
+    private static Iterator<Object> arrayIterator(Object array) {
+        int length = Array.getLength(array);
+        return new Iterator<Object>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            public Object next() {
+                return Array.get(array, index++);
+            }
+        };
+    }
+
+    static Map<String, Object> moreMarker(int limit, long remaining) {
+        Map<String, Object> marker = Maps.newLinkedHashMap();
+        marker.put("more", true);
+        marker.put("limit", limit);
+        if (remaining >= 0) {
+            marker.put("remaining", remaining);
+        }
+        return marker;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import com.github.uhfun.swagger.extension.LazyApiDocumentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger.web.InMemorySwaggerResourcesProvider;
+import springfox.documentation.swagger.web.SwaggerResource;
+import springfox.documentation.swagger.web.SwaggerResourcesProvider;
+import springfox.documentation.swagger2.web.Swagger2Controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 懒加载模式下还没有生成的分组也要出现在swagger-resources中, 否则ui无法选择
+ *
+ * @author uhfun
+ */
+@Primary
+@Component
+public class ApiSwaggerResourcesProvider implements SwaggerResourcesProvider {
+
+    private final InMemorySwaggerResourcesProvider delegate;
+    private final LazyApiDocumentation lazyDocumentation;
+    private final SwaggerMoreProperties properties;
+    private final String swagger2Url;
+
+    @Autowired
+    public ApiSwaggerResourcesProvider(InMemorySwaggerResourcesProvider delegate,
+                                       LazyApiDocumentation lazyDocumentation,
+                                       SwaggerMoreProperties properties,
+                                       Environment environment) {
+        this.delegate = delegate;
+        this.lazyDocumentation = lazyDocumentation;
+        this.properties = properties;
+        // 与InMemorySwaggerResourcesProvider一致, 支持springfox.documentation.swagger.v2.path修改的文档地址
+        this.swagger2Url = environment.getProperty("springfox.documentation.swagger.v2.path", Swagger2Controller.DEFAULT_URL);
+    }
+
+    @Override
+    public List<SwaggerResource> get() {
+        List<SwaggerResource> resources = delegate.get();
+        if (!properties.docsLazy()) {
+            return resources;
+        }
+        Set<String> names = resources.stream().map(SwaggerResource::getName).collect(Collectors.toSet());
+        lazyDocumentation.groupNames().stream()
+                .filter(name -> !names.contains(name))
+                .forEach(name -> resources.add(resource(name)));
+        Collections.sort(resources);
+        return resources;
+    }
+
+    private SwaggerResource resource(String name) {
+        SwaggerResource resource = new SwaggerResource();
+        resource.setName(name);
+        resource.setUrl(Docket.DEFAULT_GROUP_NAME.equals(name) ? swagger2Url : swagger2Url + "?group=" + name);
+        resource.setSwaggerVersion("2.0");
+        return resource;
+    }
+}
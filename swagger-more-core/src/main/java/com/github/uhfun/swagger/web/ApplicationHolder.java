@@ -32,6 +32,10 @@ import java.util.Map;
 public class ApplicationHolder implements ApplicationContextAware {
     private static ApplicationContext applicationContext;
 
+    public static boolean isAvailable() {
+        return applicationContext != null;
+    }
+
     public static <T> T getBean(Class<T> type) {
         return applicationContext.getBean(type);
     }
@@ -19,16 +19,21 @@
 package com.github.uhfun.swagger.web;
 
 import com.alibaba.fastjson.JSONException;
+import com.github.uhfun.swagger.common.PayloadTooLargeException;
 import com.github.uhfun.swagger.common.SwaggerMoreException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.RejectedExecutionException;
 
+import static java.util.Objects.nonNull;
 import static org.springframework.http.HttpStatus.*;
 
 /**
@@ -46,10 +51,16 @@ public class ExceptionMessages {
         return "内部异常, 联系Swagger开发人员: " + e.getMessage();
     }
 
-    @ResponseStatus(INTERNAL_SERVER_ERROR)
+    /**
+     * 读请求体时超过上限的异常可能被fastjson包装, 仍然按413返回
+     */
     @ExceptionHandler(JSONException.class)
-    public Object jsonParseException(JSONException e) {
-        return "Json解析出错, 检查格式是否正确, 错误信息: " + e.getMessage();
+    public ResponseEntity<Object> jsonParseException(JSONException e) {
+        PayloadTooLargeException tooLarge = PayloadTooLargeException.causeOf(e);
+        if (nonNull(tooLarge)) {
+            return ResponseEntity.status(PAYLOAD_TOO_LARGE).body(payloadTooLargeException(tooLarge));
+        }
+        return ResponseEntity.status(INTERNAL_SERVER_ERROR).body("Json解析出错, 检查格式是否正确, 错误信息: " + e.getMessage());
     }
 
     @ResponseStatus(OK)
@@ -73,4 +84,22 @@ public class ExceptionMessages {
         return e.getMessage();
     }
 
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(RejectedExecutionException.class)
+    public Object rejectedExecutionException(RejectedExecutionException e) {
+        return e.getMessage();
+    }
+
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public Object asyncRequestTimeoutException(AsyncRequestTimeoutException e) {
+        return "调用超时, 超过swagger.more.invoke.async.timeout仍未返回";
+    }
+
+    @ResponseStatus(PAYLOAD_TOO_LARGE)
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public Object payloadTooLargeException(PayloadTooLargeException e) {
+        return e.getMessage();
+    }
+
 }
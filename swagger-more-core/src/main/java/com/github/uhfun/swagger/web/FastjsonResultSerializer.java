@@ -0,0 +1,81 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.alibaba.fastjson.JSONWriter;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author uhfun
+ */
+@Component
+public class FastjsonResultSerializer implements ApiResultSerializer {
+
+    @Override
+    public String name() {
+        return "fastjson";
+    }
+
+    @Override
+    public String contentType() {
+        return MediaType.APPLICATION_JSON_UTF8_VALUE;
+    }
+
+    @Override
+    public Output open(OutputStream out) {
+        JSONWriter writer = new JSONWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return new Output() {
+            @Override
+            public void writeValue(Object value) {
+                writer.writeObject(value);
+            }
+
+            @Override
+            public void startArray() {
+                writer.startArray();
+            }
+
+            @Override
+            public void writeElement(Object element) {
+                writer.writeObject(element);
+            }
+
+            @Override
+            public void writeMore(int limit, long remaining) {
+                writer.writeObject(ApiResultStreamer.moreMarker(limit, remaining));
+            }
+
+            @Override
+            public void endArray() {
+                writer.endArray();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.alibaba.com.caucho.hessian.io.Hessian2Output;
+import com.alibaba.com.caucho.hessian.io.SerializerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * dubbo默认的hessian2二进制格式. 集合结果不写成一个list, 而是每个元素写成一个独立的对象并重置引用,
+ * 避免写出大集合时引用表一直增长, 读取时循环Hessian2Input.readObject()直到流结束
+ *
+ * @author uhfun
+ */
+@Component
+public class HessianResultSerializer implements ApiResultSerializer {
+
+    private final SerializerFactory serializerFactory = new SerializerFactory();
+
+    public HessianResultSerializer() {
+        serializerFactory.setAllowNonSerializable(true);
+    }
+
+    @Override
+    public String name() {
+        return "hessian2";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/x-hessian2";
+    }
+
+    @Override
+    public Output open(OutputStream out) {
+        Hessian2Output output = new Hessian2Output(out);
+        output.setSerializerFactory(serializerFactory);
+        return new Output() {
+            @Override
+            public void writeValue(Object value) throws IOException {
+                output.writeObject(value);
+            }
+
+            @Override
+            public void startArray() {
+            }
+
+            @Override
+            public void writeElement(Object element) throws IOException {
+                output.writeObject(element);
+                output.resetReferences();
+            }
+
+            @Override
+            public void writeMore(int limit, long remaining) throws IOException {
+                output.writeObject(ApiResultStreamer.moreMarker(limit, remaining));
+            }
+
+            @Override
+            public void endArray() {
+            }
+
+            @Override
+            public void close() throws IOException {
+                output.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author uhfun
+ */
+@Component
+public class JacksonResultSerializer implements ApiResultSerializer {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Override
+    public String name() {
+        return "jackson";
+    }
+
+    @Override
+    public String contentType() {
+        return MediaType.APPLICATION_JSON_UTF8_VALUE;
+    }
+
+    @Override
+    public Output open(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        return new Output() {
+            @Override
+            public void writeValue(Object value) throws IOException {
+                objectMapper.writeValue(generator, value);
+            }
+
+            @Override
+            public void startArray() throws IOException {
+                generator.writeStartArray();
+            }
+
+            @Override
+            public void writeElement(Object element) throws IOException {
+                objectMapper.writeValue(generator, element);
+            }
+
+            @Override
+            public void writeMore(int limit, long remaining) throws IOException {
+                objectMapper.writeValue(generator, ApiResultStreamer.moreMarker(limit, remaining));
+            }
+
+            @Override
+            public void endArray() throws IOException {
+                generator.writeEndArray();
+            }
+
+            @Override
+            public void close() throws IOException {
+                generator.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.alibaba.fastjson.JSONException;
+import com.github.uhfun.swagger.common.PayloadTooLargeException;
+import com.github.uhfun.swagger.util.WebUtils;
+import com.github.uhfun.swagger.web.ExceptionMessages;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 没有Content-Length(chunked)或者声明的长度小于实际长度时, 请求体在读取中途超过上限也要按413处理
+ *
+ * @author uhfun
+ */
+public class ApiArgumentBinderTest {
+
+    private static final long MAX_BODY_SIZE = 50000;
+
+    @Test
+    public void chunkedBodyOverLimitIsPayloadTooLarge() throws Exception {
+        StringBuilder body = new StringBuilder("{\"name\":\"");
+        for (int i = 0; i < 100000; i++) {
+            body.append('x');
+        }
+        body.append("\"}");
+        ApiInvocationPlan plan = ApiInvocationPlan.of("/UserService/save", UserService.class, null, UserService.class,
+                UserService.class.getMethod("save", User.class));
+        try {
+            ApiArgumentBinder.bind(plan, WebUtils.getBodyReader(chunkedRequest(body.toString()), MAX_BODY_SIZE));
+            fail("请求体超过上限时应该抛出PayloadTooLargeException");
+        } catch (PayloadTooLargeException e) {
+            assertEquals(new PayloadTooLargeException(MAX_BODY_SIZE).getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void wrappedPayloadTooLargeAnswers413() {
+        JSONException wrapped = new JSONException("create instance error", new PayloadTooLargeException(MAX_BODY_SIZE));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, new ExceptionMessages().jsonParseException(wrapped).getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, new ExceptionMessages().jsonParseException(new JSONException("syntax error")).getStatusCode());
+    }
+
+    private static HttpServletRequest chunkedRequest(String body) {
+        ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        ServletInputStream servletInputStream = new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(ApiArgumentBinderTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getContentLength":
+                            return -1;
+                        case "getInputStream":
+                            return servletInputStream;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    public interface UserService {
+        User save(User user);
+    }
+
+    public static class User {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.invoke;
+
+import com.github.uhfun.swagger.configuration.SwaggerMoreProperties;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 同步模式等待CompletionStage也受invoke.async.timeout限制, 超时按503处理而不是一直占着请求线程
+ *
+ * @author uhfun
+ */
+public class ApiInvokerTest {
+
+    @Test
+    public void pendingCompletionStageTimesOut() throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.<String, Object>singletonMap("swagger.more.invoke.async.timeout", 100L)));
+        ApiInvoker invoker = new ApiInvoker(null, null, new SwaggerMoreProperties(environment));
+        PendingService service = new PendingService();
+        ApiInvocationPlan plan = ApiInvocationPlan.of("/PendingService/pending", PendingService.class, service,
+                PendingService.class, PendingService.class.getMethod("pending"));
+        try {
+            invoker.invoke(plan, new Object[0]);
+            fail("CompletionStage超时未完成时应该抛出AsyncRequestTimeoutException");
+        } catch (AsyncRequestTimeoutException e) {
+            assertTrue(service.future.isCancelled());
+        }
+    }
+
+    public static class PendingService {
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        public CompletionStage<String> pending() {
+            return future;
+        }
+    }
+}
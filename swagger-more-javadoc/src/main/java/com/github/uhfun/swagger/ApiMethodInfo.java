@@ -129,6 +129,10 @@ public class ApiMethodInfo {
         return noteBuilder.toString();
     }
 
+    public Method method() {
+        return method;
+    }
+
     public String methodName() {
         return method.getName();
     }
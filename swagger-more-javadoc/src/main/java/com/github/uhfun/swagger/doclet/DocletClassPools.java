@@ -0,0 +1,91 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.doclet;
+
+import com.google.common.collect.ImmutableList;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一次doclet运行内使用的ClassPool, 不再依赖全局的ClassPool.getDefault().
+ * 每个根路径(classDir和加载业务类的ClassLoader)只创建一个ClassPath, 所有pool共享;
+ * 类写出后立即detach, 缓存中只留下被引用到的类型, 运行结束后整体丢弃
+ *
+ * @author uhfun
+ */
+public final class DocletClassPools {
+
+    private final ImmutableList<ClassPath> roots;
+    private final AtomicInteger peakSize = new AtomicInteger();
+    private final AtomicInteger pools = new AtomicInteger();
+    private final LongAdder released = new LongAdder();
+
+    public DocletClassPools(String classDir, ClassLoader loader) throws NotFoundException {
+        // 和原来的ClassClassPath一致, 优先从加载业务类的ClassLoader读取, classDir只作补充
+        ClassPath classDirPath = new ClassPool(false).appendClassPath(classDir);
+        this.roots = ImmutableList.of(new LoaderClassPath(loader), classDirPath);
+    }
+
+    /**
+     * 新建一个只挂载本次根路径的pool, 非线程安全, 每个线程各自使用一个
+     */
+    public ClassPool newPool() {
+        pools.incrementAndGet();
+        ScopedClassPool pool = new ScopedClassPool();
+        roots.forEach(pool::appendClassPath);
+        return pool;
+    }
+
+    /**
+     * 类写出后调用, 记录pool当前大小并把该类移出缓存
+     */
+    public void release(CtClass ctClass) {
+        ClassPool pool = ctClass.getClassPool();
+        if (pool instanceof ScopedClassPool) {
+            peakSize.accumulateAndGet(((ScopedClassPool) pool).size(), Math::max);
+        }
+        ctClass.detach();
+        released.increment();
+    }
+
+    public int peakSize() {
+        return peakSize.get();
+    }
+
+    public String stats() {
+        return "ClassPool: " + pools.get() + " pools, " + released.sum() + " classes released, peak size " + peakSize.get();
+    }
+
+    private static final class ScopedClassPool extends ClassPool {
+
+        private ScopedClassPool() {
+            super(null);
+        }
+
+        private int size() {
+            return classes.size();
+        }
+    }
+}
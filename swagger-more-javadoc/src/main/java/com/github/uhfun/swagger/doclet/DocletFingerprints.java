@@ -0,0 +1,160 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.doclet;
+
+import com.github.uhfun.swagger.DocLogger;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import static java.util.Objects.isNull;
+
+/**
+ * 增量模式下保存在classDir里的指纹索引, 每个类记录javadoc注释的hash和写出后的class文件摘要.
+ * 两者都没变化说明上次写出的注解仍然有效, 该类可以整个跳过; 源码重新编译后class文件摘要会变化, 需要重新处理
+ *
+ * @author uhfun
+ */
+class DocletFingerprints {
+
+    static final String INDEX_FILE = ".swagger-more-doclet.index";
+    private static final String VERSION = "#swagger-more-doclet-index v1";
+
+    private final File classDir;
+    private final File indexFile;
+    private final SortedMap<String, Fingerprint> entries = Maps.newTreeMap();
+    private final Set<String> seen = Sets.newHashSet();
+
+    private DocletFingerprints(String classDir) {
+        this.classDir = new File(classDir);
+        this.indexFile = new File(classDir, INDEX_FILE);
+    }
+
+    static DocletFingerprints load(String classDir) {
+        DocletFingerprints fingerprints = new DocletFingerprints(classDir);
+        if (!fingerprints.indexFile.isFile()) {
+            return fingerprints;
+        }
+        try {
+            List<String> lines = Files.readAllLines(fingerprints.indexFile.toPath(), StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !VERSION.equals(lines.get(0))) {
+                DocLogger.info("Ignoring fingerprint index with unknown version " + fingerprints.indexFile);
+                return fingerprints;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                List<String> parts = Splitter.on(' ').splitToList(line);
+                if (parts.size() == 3) {
+                    fingerprints.entries.put(parts.get(0), new Fingerprint(parts.get(1), parts.get(2)));
+                }
+            }
+        } catch (IOException e) {
+            DocLogger.warn("Unable to read fingerprint index " + fingerprints.indexFile + ": " + e.getMessage());
+        }
+        return fingerprints;
+    }
+
+    /**
+     * 类和方法的原始注释以及方法签名, 都会影响写入的注解
+     */
+    static String commentHash(ClassDoc classDoc) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(classDoc.getRawCommentText(), StandardCharsets.UTF_8).putByte((byte) 0);
+        for (MethodDoc methodDoc : classDoc.methods()) {
+            hasher.putString(methodDoc.name(), StandardCharsets.UTF_8)
+                    .putString(methodDoc.signature(), StandardCharsets.UTF_8).putByte((byte) 0)
+                    .putString(methodDoc.getRawCommentText(), StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    boolean unchanged(String className, String commentHash) {
+        seen.add(className);
+        Fingerprint fingerprint = entries.get(className);
+        if (isNull(fingerprint) || !fingerprint.commentHash.equals(commentHash)) {
+            return false;
+        }
+        String digest = classDigest(className);
+        return fingerprint.classDigest.equals(digest);
+    }
+
+    /**
+     * 类写出之后调用, 记录写出的class文件的摘要
+     */
+    void update(String className, String commentHash) {
+        seen.add(className);
+        String digest = classDigest(className);
+        if (isNull(digest)) {
+            entries.remove(className);
+        } else {
+            entries.put(className, new Fingerprint(commentHash, digest));
+        }
+    }
+
+    private String classDigest(String className) {
+        File classFile = new File(classDir, className.replace('.', File.separatorChar) + ".class");
+        if (!classFile.isFile()) {
+            return null;
+        }
+        try {
+            return com.google.common.io.Files.asByteSource(classFile).hash(Hashing.sha256()).toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 去掉本次没有出现的类, 写回索引, 返回去掉的条数
+     */
+    int pruneAndSave() {
+        int before = entries.size();
+        entries.keySet().retainAll(seen);
+        StringBuilder content = new StringBuilder(VERSION).append('\n');
+        entries.forEach((className, fingerprint) -> content.append(className).append(' ')
+                .append(fingerprint.commentHash).append(' ').append(fingerprint.classDigest).append('\n'));
+        try {
+            Files.write(indexFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            DocLogger.warn("Unable to write fingerprint index " + indexFile + ": " + e.getMessage());
+        }
+        return before - entries.size();
+    }
+
+    private static final class Fingerprint {
+        private final String commentHash;
+        private final String classDigest;
+
+        private Fingerprint(String commentHash, String classDigest) {
+            this.commentHash = commentHash;
+            this.classDigest = classDigest;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.doclet;
+
+import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.github.uhfun.swagger.extension.ApiMetadataIndex;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.Type;
+import com.sun.javadoc.TypeVariable;
+import javassist.CtClass;
+import javassist.CtMethod;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * 一个类内方法的签名索引, 以方法名加擦除后的参数描述符为key, 对应反射的Method和javassist的CtMethod.
+ * 每个类只建一次, 查找与方法数成线性关系, 参数简单类名相同的重载也能正确区分
+ *
+ * @author uhfun
+ */
+class DocletMethodIndex {
+
+    private static final Map<String, String> PRIMITIVES = ImmutableMap.<String, String>builder()
+            .put("boolean", "Z").put("byte", "B").put("char", "C").put("short", "S")
+            .put("int", "I").put("long", "J").put("float", "F").put("double", "D")
+            .build();
+
+    private final Class<?> clazz;
+    private final Map<String, Method> methods;
+    private Map<String, CtMethod> ctMethods;
+
+    private DocletMethodIndex(Class<?> clazz) {
+        this.clazz = clazz;
+        this.methods = Maps.newHashMap();
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (!method.isBridge() && !method.isSynthetic()) {
+                methods.put(ApiMetadataIndex.methodKey(method), method);
+            }
+        }
+    }
+
+    static DocletMethodIndex of(Class<?> clazz) {
+        return new DocletMethodIndex(clazz);
+    }
+
+    Method method(MethodDoc methodDoc) {
+        Method method = methods.get(key(methodDoc));
+        if (isNull(method)) {
+            throw new SwaggerMoreException("Unable to find the corresponding method based on methodDoc " +
+                    clazz.getName() + "." + methodDoc.name() + methodDoc.signature());
+        }
+        return method;
+    }
+
+    /**
+     * 在改写线程里调用, 用同一套key索引ctClass声明的方法
+     */
+    void bind(CtClass ctClass) {
+        Map<String, CtMethod> index = Maps.newHashMap();
+        for (CtMethod ctMethod : ctClass.getDeclaredMethods()) {
+            String descriptor = ctMethod.getSignature();
+            index.put(ctMethod.getName() + descriptor.substring(0, descriptor.indexOf(')') + 1), ctMethod);
+        }
+        this.ctMethods = index;
+    }
+
+    CtMethod ctMethod(Method method) {
+        CtMethod ctMethod = isNull(ctMethods) ? null : ctMethods.get(ApiMetadataIndex.methodKey(method));
+        if (isNull(ctMethod)) {
+            throw new SwaggerMoreException("Unable to find the corresponding CtMethod of " + method);
+        }
+        return ctMethod;
+    }
+
+    private static String key(MethodDoc methodDoc) {
+        StringBuilder key = new StringBuilder(methodDoc.name()).append('(');
+        for (Parameter parameter : methodDoc.parameters()) {
+            Type type = parameter.type();
+            String dimension = type.dimension();
+            for (int i = 0; i < dimension.length(); i += 2) {
+                key.append('[');
+            }
+            key.append(erasure(type));
+        }
+        return key.append(')').toString();
+    }
+
+    /**
+     * 不含数组维度的擦除类型描述符, 泛型变量取第一个上界, 内部类使用$分隔的二进制名
+     */
+    private static String erasure(Type type) {
+        if (type.isPrimitive()) {
+            return PRIMITIVES.get(type.typeName());
+        }
+        TypeVariable typeVariable = type.asTypeVariable();
+        if (nonNull(typeVariable)) {
+            Type[] bounds = typeVariable.bounds();
+            return bounds.length > 0 ? erasure(bounds[0]) : "Ljava/lang/Object;";
+        }
+        ClassDoc classDoc = type.asClassDoc();
+        if (isNull(classDoc)) {
+            return "L" + type.qualifiedTypeName().replace('.', '/') + ";";
+        }
+        return "L" + binaryName(classDoc).replace('.', '/') + ";";
+    }
+
+    /**
+     * Class.forName和class文件路径使用的二进制名, 内部类以$分隔
+     */
+    static String binaryName(ClassDoc classDoc) {
+        ClassDoc outer = classDoc.containingClass();
+        if (isNull(outer)) {
+            return classDoc.qualifiedName();
+        }
+        return binaryName(outer) + "$" + classDoc.simpleTypeName();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.doclet;
+
+import com.alibaba.fastjson.JSON;
+import com.github.uhfun.swagger.ApiInfo;
+import com.github.uhfun.swagger.ApiMethodInfo;
+import com.github.uhfun.swagger.extension.ApiMetadataIndex;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * -sidecar模式下的输出, 不改写class文件, 把类、方法和参数的描述写到classDir下的
+ * META-INF/swagger-more/api-metadata.json, 运行时由ApiMetadataIndex读取. 类按名字排序, 输出与处理顺序无关
+ *
+ * @author uhfun
+ */
+class DocletSidecarWriter {
+
+    private final SortedMap<String, Map<String, Object>> classes = Maps.newTreeMap();
+
+    void add(Class<?> clazz, ApiInfo apiInfo, List<ApiMethodInfo> methodInfos) {
+        if (apiInfo.hidden()) {
+            return;
+        }
+        Map<String, Object> methods = Maps.newLinkedHashMap();
+        for (ApiMethodInfo methodInfo : methodInfos) {
+            List<Map<String, Object>> params = Lists.newArrayListWithCapacity(methodInfo.parameterCount());
+            for (int i = 0; i < methodInfo.parameterCount(); i++) {
+                Map<String, Object> param = Maps.newLinkedHashMap();
+                param.put("name", methodInfo.param(i).name());
+                param.put("value", methodInfo.param(i).value());
+                params.add(param);
+            }
+            Map<String, Object> method = Maps.newLinkedHashMap();
+            method.put("value", methodInfo.value());
+            method.put("notes", methodInfo.notes());
+            method.put("returnDescription", methodInfo.returnDescription());
+            method.put("hidden", methodInfo.hidden());
+            method.put("deprecated", methodInfo.deprecated());
+            method.put("params", params);
+            methods.put(ApiMetadataIndex.methodKey(methodInfo.method()), method);
+        }
+        Map<String, Object> entry = Maps.newLinkedHashMap();
+        entry.put("tags", new String[]{apiInfo.tag()});
+        entry.put("hidden", false);
+        entry.put("methods", methods);
+        classes.put(clazz.getName(), entry);
+    }
+
+    File write(String classDir) throws IOException {
+        Map<String, Object> index = Maps.newLinkedHashMap();
+        index.put("version", ApiMetadataIndex.VERSION);
+        index.put("classes", classes);
+        File file = new File(classDir, ApiMetadataIndex.LOCATION);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), JSON.toJSONString(index).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    int size() {
+        return classes.size();
+    }
+}
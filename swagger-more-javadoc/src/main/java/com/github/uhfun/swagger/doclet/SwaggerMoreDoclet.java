@@ -22,7 +22,8 @@ import com.github.uhfun.swagger.ApiInfo;
 import com.github.uhfun.swagger.ApiMethodInfo;
 import com.github.uhfun.swagger.DocLogger;
 import com.github.uhfun.swagger.annotations.ApiMethod;
-import com.github.uhfun.swagger.common.SwaggerMoreException;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.javadoc.ClassDoc;
 import com.sun.javadoc.DocErrorReporter;
 import com.sun.javadoc.MethodDoc;
@@ -36,8 +37,11 @@ import javassist.bytecode.annotation.*;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import static com.github.uhfun.swagger.ApiInfo.TAGS;
@@ -51,7 +55,13 @@ import static java.util.stream.Collectors.joining;
  */
 public class SwaggerMoreDoclet {
     public static final String OPTION_CLASS_DIR = "-classDir";
+    public static final String OPTION_INCREMENTAL = "-incremental";
+    public static final String OPTION_THREADS = "-threads";
+    public static final String OPTION_SIDECAR = "-sidecar";
     private static String classDir;
+    private static boolean incremental;
+    private static boolean sidecar;
+    private static int threads = 1;
 
     public static
     void main(String[] args) {
@@ -87,28 +97,85 @@ public class SwaggerMoreDoclet {
         return true;
     }
 
-    private static void parseAndAnnotate(RootDoc rootDoc) throws ClassNotFoundException, NotFoundException, CannotCompileException, IOException {
+    private static void parseAndAnnotate(RootDoc rootDoc) throws Exception {
+        if (incremental && sidecar) {
+            DocLogger.warn(OPTION_INCREMENTAL + " is ignored with " + OPTION_SIDECAR + ", the metadata index is always written in full");
+        }
+        DocletFingerprints fingerprints = incremental && !sidecar ? DocletFingerprints.load(classDir) : null;
+        List<AnnotationTask> tasks = Lists.newArrayList();
+        // doclet api不是线程安全的, 先顺序读出全部javadoc信息
         for (ClassDoc classDoc : rootDoc.classes()) {
-            if (StringUtils.isEmpty(classDoc.getRawCommentText())) {
-                DocLogger.warn("No javadoc found in class " + classDoc.qualifiedName() + "." + classDoc.name());
+            String commentHash = null;
+            if (nonNull(fingerprints)) {
+                commentHash = DocletFingerprints.commentHash(classDoc);
+                if (fingerprints.unchanged(DocletMethodIndex.binaryName(classDoc), commentHash)) {
+                    continue;
+                }
             }
-            Class clazz = Class.forName(classDoc.qualifiedName());
-            ClassPool pool = ClassPool.getDefault();
-            pool.insertClassPath(new ClassClassPath(clazz));
-            CtClass ctClass = pool.get(clazz.getName());
-            ApiInfo apiInfo = ApiInfo.fromClassDoc(clazz, classDoc);
-            if (!apiInfo.hidden()) {
-                annotateClassAnn(ctClass, apiInfo);
-                for (MethodDoc methodDoc : classDoc.methods()) {
-                    ApiMethodInfo apiMethodInfo = ApiMethodInfo.fromMethodDoc(matchingMethod(clazz, methodDoc), methodDoc);
-                    if (StringUtils.isEmpty(methodDoc.getRawCommentText())) {
-                        DocLogger.warn("No javadoc found in method " + classDoc.qualifiedName() + "." + methodDoc.name() + methodDoc.signature());
-                    }
-                    annotateMethodAnn(ctClass, apiMethodInfo);
+            tasks.add(AnnotationTask.fromClassDoc(classDoc, commentHash));
+        }
+        if (sidecar) {
+            writeSidecar(tasks);
+            return;
+        }
+        DocletClassPools classPools = new DocletClassPools(classDir, SwaggerMoreDoclet.class.getClassLoader());
+        annotate(tasks, classPools);
+        for (AnnotationTask task : tasks) {
+            if (!task.apiInfo.hidden()) {
+                DocLogger.info("Successfully annotated " + task.clazz.getTypeName());
+            }
+            if (nonNull(fingerprints)) {
+                fingerprints.update(task.clazz.getName(), task.commentHash);
+            }
+        }
+        if (nonNull(fingerprints)) {
+            int pruned = fingerprints.pruneAndSave();
+            DocLogger.info("Incremental: " + (rootDoc.classes().length - tasks.size()) + " unchanged classes skipped, "
+                    + tasks.size() + " annotated, " + pruned + " stale entries pruned");
+        }
+        DocLogger.info(classPools.stats());
+    }
+
+    private static void writeSidecar(List<AnnotationTask> tasks) throws IOException {
+        DocletSidecarWriter writer = new DocletSidecarWriter();
+        for (AnnotationTask task : tasks) {
+            writer.add(task.clazz, task.apiInfo, task.methodInfos);
+        }
+        DocLogger.info("Wrote metadata of " + writer.size() + " classes to " + writer.write(classDir));
+    }
+
+    /**
+     * 每个类的改写互不依赖, 每个线程使用自己的ClassPool, 写出的class文件与线程数无关
+     */
+    private static void annotate(List<AnnotationTask> tasks, DocletClassPools classPools) throws Exception {
+        int workers = Math.min(threads, tasks.size());
+        if (workers <= 1) {
+            ClassPool pool = classPools.newPool();
+            for (AnnotationTask task : tasks) {
+                task.annotate(pool, classPools);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+                new ThreadFactoryBuilder().setNameFormat("swagger-more-doclet-%d").setDaemon(true).build());
+        ThreadLocal<ClassPool> pools = ThreadLocal.withInitial(classPools::newPool);
+        try {
+            List<Future<?>> futures = Lists.newArrayListWithCapacity(tasks.size());
+            for (AnnotationTask task : tasks) {
+                futures.add(executor.submit(() -> {
+                    task.annotate(pools.get(), classPools);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
                 }
-                DocLogger.info("Successfully annotated " + clazz.getTypeName());
             }
-            ctClass.writeFile(classDir);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -150,17 +217,12 @@ public class SwaggerMoreDoclet {
         attr.addAnnotation(apiAnn);
     }
 
-    private static void annotateMethodAnn(CtClass ctClass,
-                                          ApiMethodInfo methodInfo) throws NotFoundException {
-        ConstPool constPool = ctClass.getClassFile().getConstPool();
-        for (CtMethod ctMethod : ctClass.getDeclaredMethods(methodInfo.methodName())) {
-            if (Stream.of(ctMethod.getParameterTypes()).map(CtClass::getSimpleName).collect(joining(", ")).equals(methodInfo.parameterNames())) {
-                AnnotationsAttribute attr = getAnnotationAttr(ctMethod);
-                annotateDeprecatedAnn(methodInfo, attr, constPool);
-                annotateApiMethodAnn(methodInfo, attr, constPool);
-                ctMethod.getMethodInfo().addAttribute(attr);
-            }
-        }
+    private static void annotateMethodAnn(CtMethod ctMethod, ApiMethodInfo methodInfo) {
+        ConstPool constPool = ctMethod.getMethodInfo().getConstPool();
+        AnnotationsAttribute attr = getAnnotationAttr(ctMethod);
+        annotateDeprecatedAnn(methodInfo, attr, constPool);
+        annotateApiMethodAnn(methodInfo, attr, constPool);
+        ctMethod.getMethodInfo().addAttribute(attr);
     }
 
     private static void annotateDeprecatedAnn(ApiMethodInfo methodInfo, AnnotationsAttribute attr, ConstPool constPool) {
@@ -210,16 +272,30 @@ public class SwaggerMoreDoclet {
 
     public static boolean validOptions(String[][] options, DocErrorReporter reporter) {
         // 插件参数校验需要实现的方法
-        Arrays.stream(options).forEach(s -> {
+        for (String[] s : options) {
             if (OPTION_CLASS_DIR.equalsIgnoreCase(s[0])) {
                 classDir = s[1];
+            } else if (OPTION_INCREMENTAL.equalsIgnoreCase(s[0])) {
+                incremental = true;
+            } else if (OPTION_SIDECAR.equalsIgnoreCase(s[0])) {
+                sidecar = true;
+            } else if (OPTION_THREADS.equalsIgnoreCase(s[0])) {
+                try {
+                    threads = Math.max(1, Integer.parseInt(s[1]));
+                } catch (NumberFormatException e) {
+                    reporter.printError(OPTION_THREADS + " must be a number: " + s[1]);
+                    return false;
+                }
             }
-        });
+        }
         return true;
     }
 
     public static int optionLength(String option) {
-        return OPTION_CLASS_DIR.equalsIgnoreCase(option) ? 2 : 0;
+        if (OPTION_CLASS_DIR.equalsIgnoreCase(option) || OPTION_THREADS.equalsIgnoreCase(option)) {
+            return 2;
+        }
+        return OPTION_INCREMENTAL.equalsIgnoreCase(option) || OPTION_SIDECAR.equalsIgnoreCase(option) ? 1 : 0;
     }
 
     private static AnnotationsAttribute getAnnotationAttr(CtClass ctClass) {
@@ -240,17 +316,58 @@ public class SwaggerMoreDoclet {
         return new AnnotationsAttribute(ctMethod.getMethodInfo().getConstPool(), AnnotationsAttribute.visibleTag);
     }
 
-    private static Method matchingMethod(Class clazz, MethodDoc methodDoc) {
-        for (Method method : clazz.getDeclaredMethods()) {
-            if (!method.getName().equals(methodDoc.name())) {
-                continue;
+    /**
+     * 一个类的改写任务, javadoc信息在创建时读出, annotate可以在任意线程执行
+     */
+    static final class AnnotationTask {
+        private final Class clazz;
+        private final ApiInfo apiInfo;
+        private final DocletMethodIndex methodIndex;
+        private final List<ApiMethodInfo> methodInfos;
+        private final String commentHash;
+
+        private AnnotationTask(Class clazz, ApiInfo apiInfo, DocletMethodIndex methodIndex,
+                               List<ApiMethodInfo> methodInfos, String commentHash) {
+            this.clazz = clazz;
+            this.methodIndex = methodIndex;
+            this.apiInfo = apiInfo;
+            this.methodInfos = methodInfos;
+            this.commentHash = commentHash;
+        }
+
+        private static AnnotationTask fromClassDoc(ClassDoc classDoc, String commentHash) throws ClassNotFoundException {
+            return fromClassDoc(Class.forName(DocletMethodIndex.binaryName(classDoc)), classDoc, commentHash);
+        }
+
+        static AnnotationTask fromClassDoc(Class clazz, ClassDoc classDoc, String commentHash) {
+            if (StringUtils.isEmpty(classDoc.getRawCommentText())) {
+                DocLogger.warn("No javadoc found in class " + classDoc.qualifiedName() + "." + classDoc.name());
+            }
+            ApiInfo apiInfo = ApiInfo.fromClassDoc(clazz, classDoc);
+            DocletMethodIndex methodIndex = DocletMethodIndex.of(clazz);
+            List<ApiMethodInfo> methodInfos = Lists.newArrayList();
+            if (!apiInfo.hidden()) {
+                for (MethodDoc methodDoc : classDoc.methods()) {
+                    methodInfos.add(ApiMethodInfo.fromMethodDoc(methodIndex.method(methodDoc), methodDoc));
+                    if (StringUtils.isEmpty(methodDoc.getRawCommentText())) {
+                        DocLogger.warn("No javadoc found in method " + classDoc.qualifiedName() + "." + methodDoc.name() + methodDoc.signature());
+                    }
+                }
             }
-            String methodSignature = "(" + Stream.of(method.getParameterTypes()).map(Class::getName).collect(joining(", ")) + ")";
-            if (methodSignature.equals(methodDoc.signature())) {
-                return method;
+            return new AnnotationTask(clazz, apiInfo, methodIndex, methodInfos, commentHash);
+        }
+
+        void annotate(ClassPool pool, DocletClassPools classPools) throws NotFoundException, CannotCompileException, IOException {
+            CtClass ctClass = pool.get(clazz.getName());
+            if (!apiInfo.hidden()) {
+                annotateClassAnn(ctClass, apiInfo);
+                methodIndex.bind(ctClass);
+                for (ApiMethodInfo methodInfo : methodInfos) {
+                    annotateMethodAnn(methodIndex.ctMethod(methodInfo.method()), methodInfo);
+                }
             }
+            ctClass.writeFile(classDir);
+            classPools.release(ctClass);
         }
-        throw new SwaggerMoreException("Unable to find the corresponding method based on methodDoc " +
-                methodDoc.name() + methodDoc.signature());
     }
 }
@@ -0,0 +1,147 @@
+/*
+ *
+ *  Copyright 2019 uhfun
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package com.github.uhfun.swagger.doclet;
+
+import com.github.uhfun.swagger.DocLogger;
+import com.github.uhfun.swagger.annotations.ApiMethod;
+import com.github.uhfun.swagger.doclet.SwaggerMoreDoclet.AnnotationTask;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.ParamTag;
+import com.sun.javadoc.Parameter;
+import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.Type;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 在surefire的小堆进程中用doclet的改写任务原地改写5000个合成接口, 写出的类必须及时移出ClassPool,
+ * 缓存随类的个数增长时这里会OutOfMemoryError或超过峰值上限
+ *
+ * @author uhfun
+ */
+public class DocletClassPoolsTest {
+
+    private static final String PACKAGE = "com.github.uhfun.swagger.doclet.generated.";
+    private static final Class<?>[] PARAMETER_TYPES = {Long.class, String.class, java.util.List.class};
+    private static final int CLASSES = 5000;
+    private static final int METHODS = 12;
+    private static final int MAX_PEAK_SIZE = 16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classDir;
+
+    @Before
+    public void setUp() throws Exception {
+        classDir = folder.newFolder("classes");
+        ClassPool pool = new ClassPool(true);
+        CtClass[] params = new CtClass[PARAMETER_TYPES.length];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = pool.get(PARAMETER_TYPES[i].getName());
+        }
+        for (int i = 0; i < CLASSES; i++) {
+            CtClass ctClass = pool.makeInterface(PACKAGE + "Service" + i);
+            for (int m = 0; m < METHODS; m++) {
+                ctClass.addMethod(CtNewMethod.abstractMethod(pool.get(String.class.getName()), "method" + m, params, null, ctClass));
+            }
+            ctClass.writeFile(classDir.getPath());
+            ctClass.detach();
+        }
+        DocLogger.setRootDoc(doc(RootDoc.class));
+        SwaggerMoreDoclet.validOptions(new String[][]{{SwaggerMoreDoclet.OPTION_CLASS_DIR, classDir.getPath()}}, null);
+    }
+
+    @Test
+    public void peakSizeStaysBounded() throws Exception {
+        ClassLoader loader = new URLClassLoader(new URL[]{classDir.toURI().toURL()}, getClass().getClassLoader());
+        DocletClassPools classPools = new DocletClassPools(classDir.getPath(), loader);
+        ClassPool pool = classPools.newPool();
+        for (int i = 0; i < CLASSES; i++) {
+            Class<?> clazz = loader.loadClass(PACKAGE + "Service" + i);
+            AnnotationTask.fromClassDoc(clazz, classDoc(clazz), null).annotate(pool, classPools);
+        }
+        assertTrue(classPools.stats(), classPools.peakSize() > 0);
+        assertTrue(classPools.stats(), classPools.peakSize() <= MAX_PEAK_SIZE);
+
+        ClassLoader rewritten = new URLClassLoader(new URL[]{classDir.toURI().toURL()}, getClass().getClassLoader());
+        Method method = rewritten.loadClass(PACKAGE + "Service" + (CLASSES - 1)).getMethod("method0", PARAMETER_TYPES);
+        assertEquals("method0 of Service" + (CLASSES - 1), method.getAnnotation(ApiMethod.class).value());
+    }
+
+    private static ClassDoc classDoc(Class<?> clazz) {
+        MethodDoc[] methods = new MethodDoc[METHODS];
+        for (int m = 0; m < METHODS; m++) {
+            String name = "method" + m;
+            Parameter[] parameters = new Parameter[PARAMETER_TYPES.length];
+            ParamTag[] paramTags = new ParamTag[PARAMETER_TYPES.length];
+            for (int i = 0; i < parameters.length; i++) {
+                Type type = doc(Type.class, "dimension", "", "qualifiedTypeName", PARAMETER_TYPES[i].getName());
+                parameters[i] = doc(Parameter.class, "name", "p" + i, "type", type);
+                paramTags[i] = doc(ParamTag.class, "parameterName", "p" + i, "parameterComment", "p" + i);
+            }
+            String comment = name + " of " + clazz.getSimpleName();
+            methods[m] = doc(MethodDoc.class, "name", name, "getRawCommentText", comment, "commentText", comment,
+                    "parameters", parameters, "paramTags", paramTags);
+        }
+        return doc(ClassDoc.class, "qualifiedName", clazz.getName(), "name", clazz.getSimpleName(),
+                "getRawCommentText", clazz.getSimpleName(), "commentText", clazz.getSimpleName(), "methods", methods);
+    }
+
+    /**
+     * 按方法名返回给定值的javadoc对象, 其余方法返回空数组、false或null
+     */
+    private static <T> T doc(Class<T> type, Object... namesAndValues) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(values, args);
+            }
+            if (values.containsKey(method.getName())) {
+                return values.get(method.getName());
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isArray()) {
+                return Array.newInstance(returnType.getComponentType(), 0);
+            }
+            return returnType == boolean.class ? false : null;
+        }));
+    }
+}